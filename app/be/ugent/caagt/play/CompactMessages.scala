@@ -0,0 +1,129 @@
+/*
+ * CompactMessages.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import scala.collection.immutable.AbstractMap
+
+/**
+ * Dictionary of message keys that is shared between the messages of all languages. Every key is stored only once
+ * and is assigned a fixed integer id.
+ *
+ * Lookups use an open addressing hash table and never block. Keys are only ever added, in batches, and each batch
+ * publishes a new table.
+ */
+private[play] final class MessageKeys {
+
+  import MessageKeys._
+
+  @volatile private var table: Table = new Table(new Array[String](0), new Array[Int](16))
+
+  /**
+   * Returns the id of the given key, or -1 if the key is not in the dictionary
+   */
+  def id(key: String): Int = table.id(key)
+
+  /**
+   * Returns the key with the given id
+   */
+  def key(id: Int): String = table.keys(id)
+
+  def size: Int = table.keys.length
+
+  /**
+   * Converts the given messages to a compact map, adding keys to the dictionary when necessary
+   */
+  def compact(messages: scala.collection.Map[String, String]): CompactMessages = {
+    val current = register(messages.keys)
+    val values = new Array[String](current.keys.length)
+    for ((key, value) <- messages) {
+      values(current.id(key)) = value
+    }
+    new CompactMessages(this, values, messages.size)
+  }
+
+  private def register(keys: Iterable[String]): Table = synchronized {
+    val current = table
+    val missing = keys.filter(current.id(_) < 0).toArray.distinct
+    if (missing.isEmpty) {
+      current
+    } else {
+      val newKeys = current.keys ++ missing
+      var capacity = current.slots.length
+      while (capacity < 2 * newKeys.length) {
+        capacity *= 2
+      }
+      val slots = new Array[Int](capacity)
+      for (i <- newKeys.indices) {
+        var slot = spread(newKeys(i).hashCode) & (capacity - 1)
+        while (slots(slot) != 0) {
+          slot = (slot + 1) & (capacity - 1)
+        }
+        slots(slot) = i + 1
+      }
+      val result = new Table(newKeys, slots)
+      table = result
+      result
+    }
+  }
+
+}
+
+private[play] object MessageKeys {
+
+  private def spread(hash: Int): Int = hash ^ (hash >>> 16)
+
+  /**
+   * Immutable snapshot of the dictionary. Slots contain key id + 1, or 0 when empty.
+   */
+  private final class Table(val keys: Array[String], val slots: Array[Int]) {
+
+    def id(key: String): Int = {
+      val mask = slots.length - 1
+      var slot = spread(key.hashCode) & mask
+      while (true) {
+        val entry = slots(slot)
+        if (entry == 0) {
+          return -1
+        } else if (keys(entry - 1) == key) {
+          return entry - 1
+        }
+        slot = (slot + 1) & mask
+      }
+      -1 // not reached
+    }
+  }
+
+}
+
+/**
+ * Messages of a single language, stored as an array of values indexed by the ids of a shared
+ * key dictionary. Missing messages correspond to null values.
+ */
+private[play] final class CompactMessages(keys: MessageKeys, values: Array[String], override val size: Int)
+  extends AbstractMap[String, String] {
+
+  override def get(key: String): Option[String] = {
+    val id = keys.id(key)
+    if (id >= 0 && id < values.length) Option(values(id)) else None
+  }
+
+  override def contains(key: String): Boolean = {
+    val id = keys.id(key)
+    id >= 0 && id < values.length && values(id) != null
+  }
+
+  override def iterator: Iterator[(String, String)] =
+    values.indices.iterator.filter(values(_) != null).map(id => keys.key(id) -> values(id))
+
+  override def removed(key: String): Map[String, String] = iterator.toMap.removed(key)
+
+  override def updated[V1 >: String](key: String, value: V1): Map[String, V1] = iterator.toMap.updated(key, value)
+
+}
@@ -0,0 +1,160 @@
+/*
+ * CompiledMessagesApi.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import java.text.MessageFormat
+import java.util.concurrent.ConcurrentHashMap
+
+import be.ugent.caagt.play.util.BoundedCache
+import play.api.http.HttpConfiguration
+import play.api.i18n.{DefaultMessagesApi, Lang, Langs}
+import play.api.mvc.Cookie
+
+/**
+ * Messages API that compiles every message pattern only once per language, instead of parsing it
+ * into a new `MessageFormat` on every call.
+ *
+ * Compiled messages are kept in a bounded cache per language so that rarely used keys do not
+ * take up memory indefinitely. Messages without format elements are formatted once at
+ * compile time and afterwards simply returned.
+ */
+class CompiledMessagesApi(
+                           allMessages: Map[String, Map[String, String]],
+                           allLangs: Langs,
+                           cookieName: String,
+                           cookieSecure: Boolean,
+                           cookieHttpOnly: Boolean,
+                           cookieSameSite: Option[Cookie.SameSite],
+                           httpConfig: HttpConfiguration,
+                           cookieMaxAge: Option[Int],
+                           cacheSize: Int)
+  extends DefaultMessagesApi(
+    allMessages,
+    allLangs,
+    langCookieName = cookieName,
+    langCookieSecure = cookieSecure,
+    langCookieHttpOnly = cookieHttpOnly,
+    langCookieSameSite = cookieSameSite,
+    httpConfiguration = httpConfig,
+    langCookieMaxAge = cookieMaxAge) {
+
+  import CompiledMessagesApi._
+
+  /**
+   * Compiled messages, together with the messages they were compiled from. Both are replaced at the same time
+   * when messages are invalidated.
+   */
+  @volatile private var generation = new Generation(snapshot)
+
+  override def translate(key: String, args: Seq[Any])(implicit lang: Lang): Option[String] = {
+    compiled(key, lang) match {
+      case NotFound => None
+      case message => Some(message.format(args))
+    }
+  }
+
+  override def isDefinedAt(key: String)(implicit lang: Lang): Boolean = compiled(key, lang) ne NotFound
+
+  /**
+   * Removes all compiled messages that may depend on the messages for the given language code from the cache.
+   * This includes the messages of more specific languages (`nl-BE` for `nl`) and, for the default messages,
+   * the messages of all languages. Must be called after the messages of that language have been replaced.
+   *
+   * Lookups that are in progress while the messages are invalidated store their result in the old cache only,
+   * so messages compiled from the old patterns are never returned afterwards.
+   */
+  def invalidate(code: String): Unit = synchronized {
+    val next = new Generation(snapshot)
+    if (code != "default" && code != "default.play") {
+      generation.caches.forEach { (lang, cache) =>
+        if (lang != code && !lang.startsWith(code + "-")) {
+          next.caches.put(lang, cache)
+        }
+      }
+    }
+    generation = next
+  }
+
+  /**
+   * The current messages, unaffected by later replacements
+   */
+  private def snapshot: Map[String, Map[String, String]] = messages match {
+    case reloadable: ReloadableMessagesMap => reloadable.snapshot
+    case other => other
+  }
+
+  private def compiled(key: String, lang: Lang): CompiledMessage = {
+    val current = generation
+    current.caches.computeIfAbsent(lang.code, _ => new BoundedCache[String, CompiledMessage](cacheSize))
+      .computeIfAbsent(key, _ => compile(current.messages, key, lang))
+  }
+
+  private def compile(messages: Map[String, Map[String, String]], key: String, lang: Lang): CompiledMessage = {
+    pattern(messages, key, lang) match {
+      case None => NotFound
+      case Some(pattern) =>
+        if (pattern.indexOf('{') < 0 && pattern.indexOf('\'') < 0) {
+          new ConstantMessage(pattern)
+        } else {
+          val format = new MessageFormat(pattern, lang.toLocale)
+          if (format.getFormatsByArgumentIndex.isEmpty) {
+            new ConstantMessage(format.format(Array.empty[AnyRef]))
+          } else if (format.getFormats.forall(_ == null)) {
+            // formatting does not change the state of a message format without sub formats
+            new SharedMessage(format)
+          } else {
+            new ClonedMessage(format)
+          }
+        }
+    }
+  }
+
+  /**
+   * Retrieves the message pattern from the given messages in the same order of preference as the default
+   * implementation
+   */
+  protected def pattern(messages: Map[String, Map[String, String]], key: String, lang: Lang): Option[String] = {
+    messages.get(lang.code).flatMap(_.get(key))
+      .orElse(messages.get(lang.language).flatMap(_.get(key)))
+      .orElse(messages.get("default").flatMap(_.get(key)))
+      .orElse(messages.get("default.play").flatMap(_.get(key)))
+  }
+
+}
+
+private object CompiledMessagesApi {
+
+  final class Generation(val messages: Map[String, Map[String, String]]) {
+    val caches = new ConcurrentHashMap[String, BoundedCache[String, CompiledMessage]]()
+  }
+
+  sealed abstract class CompiledMessage {
+    def format(args: Seq[Any]): String
+  }
+
+  object NotFound extends CompiledMessage {
+    override def format(args: Seq[Any]): String = null
+  }
+
+  final class ConstantMessage(text: String) extends CompiledMessage {
+    override def format(args: Seq[Any]): String = text
+  }
+
+  final class SharedMessage(messageFormat: MessageFormat) extends CompiledMessage {
+    override def format(args: Seq[Any]): String =
+      messageFormat.format(args.map(_.asInstanceOf[AnyRef]).toArray)
+  }
+
+  final class ClonedMessage(prototype: MessageFormat) extends CompiledMessage {
+    override def format(args: Seq[Any]): String =
+      prototype.clone().asInstanceOf[MessageFormat].format(args.map(_.asInstanceOf[AnyRef]).toArray)
+  }
+
+}
@@ -10,17 +10,26 @@
 
 package be.ugent.caagt.play
 
+import java.io.IOException
 import java.net.URL
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Path, Paths}
+import java.security.MessageDigest
 import java.util.Properties
+import java.util.concurrent.{Callable, ConcurrentHashMap, ExecutionException, Executors, TimeUnit}
 import javax.inject.{Inject, Singleton}
 
+import be.ugent.caagt.play.util.Table
 import com.typesafe.config.ConfigFactory
 import play.api.http.HttpConfiguration
 import play.api.i18n._
-import play.api.inject.Module
-import play.api.{Configuration, Environment}
+import play.api.inject.{ApplicationLifecycle, Module}
+import play.api.{Configuration, Environment, Logger}
 import play.utils.Resources
 
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
 import scala.jdk.CollectionConverters._
 
 @Singleton
@@ -28,36 +37,196 @@ class HoconMessagesApiProvider @Inject()(
                                           environment: Environment,
                                           config: Configuration,
                                           langs: Langs,
-                                          httpConfiguration: HttpConfiguration)
+                                          httpConfiguration: HttpConfiguration,
+                                          lifecycle: ApplicationLifecycle)
   extends DefaultMessagesApiProvider(environment, config, langs, httpConfiguration) {
 
+  private val logger = Logger(getClass)
+
+  private val messageKeys = new MessageKeys
+
   override lazy val get: MessagesApi = {
-    new DefaultMessagesApi(
-      loadAllMessages,
+    val reloadInterval = config.getOptional[FiniteDuration]("play.i18n.hocon.reload.interval")
+    val messages = reloadInterval match {
+      case Some(_) => new ReloadableMessagesMap(loadAllMessages)
+      case None => loadAllMessages
+    }
+    val api = new CompiledMessagesApi(
+      messages,
       langs,
-      langCookieName = langCookieName,
-      langCookieSecure = langCookieSecure,
-      langCookieHttpOnly = langCookieHttpOnly,
-      langCookieSameSite = langCookieSameSite,
-      httpConfiguration = httpConfiguration,
-      langCookieMaxAge = langCookieMaxAge)
+      cookieName = langCookieName,
+      cookieSecure = langCookieSecure,
+      cookieHttpOnly = langCookieHttpOnly,
+      cookieSameSite = langCookieSameSite,
+      httpConfig = httpConfiguration,
+      cookieMaxAge = langCookieMaxAge,
+      cacheSize = config.getOptional[Int]("play.i18n.hocon.cacheSize").getOrElse(10000))
+    (messages, reloadInterval) match {
+      case (reloadable: ReloadableMessagesMap, Some(interval)) => startReloading(reloadable, api, interval)
+      case _ =>
+    }
+    api
   }
 
+  /**
+   * Periodically checks whether the message files of a language have changed and if so, reloads
+   * the messages of that language only.
+   */
+  private def startReloading(messages: ReloadableMessagesMap, api: CompiledMessagesApi, interval: FiniteDuration): Unit = {
+    val files = messageFiles
+    val descriptions = new ConcurrentHashMap[String, String]()
+    files.foreach { case (code, file) => descriptions.put(code, describeResources(code, file)) }
+
+    val executor = Executors.newSingleThreadScheduledExecutor { runnable =>
+      val thread = new Thread(runnable, "hocon-messages-reloader")
+      thread.setDaemon(true)
+      thread
+    }
+    executor.scheduleWithFixedDelay(() => {
+      for ((code, file) <- files) {
+        try {
+          val description = describeResources(code, file)
+          if (description != descriptions.get(code)) {
+            messages.replace(code, loadMessages(file))
+            api.invalidate(code)
+            Table.clearHeaderCache()
+            descriptions.put(code, description)
+            logger.info(s"Reloaded messages for '$code'")
+          }
+        } catch {
+          case ex: Exception => logger.warn(s"Could not reload messages for '$code'", ex)
+        }
+      }
+    }, interval.toMillis, interval.toMillis, TimeUnit.MILLISECONDS)
+    lifecycle.addStopHook(() => Future.successful(executor.shutdownNow()))
+  }
+
+  /**
+   * Loads and merges the messages from all resources with the given name. The result uses the key
+   * dictionary shared by all languages.
+   */
   override protected def loadMessages(file: String): Map[String, String] = {
+    val messages = mutable.HashMap.empty[String, String]
     getResources(file)
       .filterNot(url => Resources.isDirectory(environment.classLoader, url)).reverse
-      .map(getMessages)
-      .foldLeft(Map.empty[String, String]) {
-        _ ++ _
-      }
+      .foreach(url => addMessages(url, messages))
+    messageKeys.compact(messages)
   }
 
   override protected def loadAllMessages: Map[String, Map[String, String]] = {
+    val files = messageFiles
+    config.getOptional[String]("play.i18n.hocon.snapshot") match {
+      case Some(snapshot) => loadFromSnapshot(Paths.get(snapshot), files)
+      case None => loadFiles(files)
+    }
+  }
+
+  private def loadFiles(files: Map[String, String]): Map[String, Map[String, String]] = {
+    config.getOptional[String]("play.i18n.hocon.loading").getOrElse("eager") match {
+      case "eager" =>
+        files.map { case (code, file) => code -> loadMessages(file) }
+      case "lazy" =>
+        new LazyMessagesMap(files.map { case (code, file) => code -> (() => loadMessages(file)) })
+      case "parallel" =>
+        loadInParallel(files)
+      case other =>
+        throw config.reportError("play.i18n.hocon.loading", s"Unknown loading mode '$other'")
+    }
+  }
+
+  /**
+   * Maps every language code to the name of the corresponding messages file
+   */
+  private def messageFiles: Map[String, String] = {
     langs.availables.map(_.code).map { lang =>
-      (lang, loadMessages(s"messages.$lang.conf"))
+      (lang, s"messages.$lang.conf")
     }.toMap ++ Map(
-      "default" -> loadMessages("messages.conf"),
-      "default.play" -> loadMessages("messages.default"))
+      "default" -> "messages.conf",
+      "default.play" -> "messages.default")
+  }
+
+  /**
+   * Loads all messages from the snapshot file, provided it is still valid for the current message files. Otherwise
+   * loads all messages from the original files and (re)writes the snapshot.
+   */
+  private def loadFromSnapshot(snapshot: Path, files: Map[String, String]): Map[String, Map[String, String]] = {
+    val currentFingerprint = fingerprint(files)
+    val stored = try {
+      MessagesSnapshot.read(snapshot, currentFingerprint)
+        .map(_.map { case (code, messages) => code -> messageKeys.compact(messages) })
+    } catch {
+      case ex: Exception =>
+        logger.warn(s"Could not read messages snapshot $snapshot", ex)
+        None
+    }
+    stored.getOrElse {
+      val messages = loadFiles(files)
+      try {
+        MessagesSnapshot.write(snapshot, currentFingerprint, messages)
+      } catch {
+        case ex: IOException => logger.warn(s"Could not write messages snapshot $snapshot", ex)
+      }
+      messages
+    }
+  }
+
+  /**
+   * Computes a fingerprint of all resources that contribute to the messages. Changes when a resource is
+   * added, removed, modified or changes size.
+   */
+  private def fingerprint(files: Map[String, String]): Array[Byte] = {
+    val digest = MessageDigest.getInstance("SHA-256")
+    for ((code, file) <- files.toSeq.sortBy(_._1)) {
+      digest.update(describeResources(code, file).getBytes(StandardCharsets.UTF_8))
+    }
+    digest.digest()
+  }
+
+  /**
+   * Describes location, modification time and size of the resources for the given messages file
+   */
+  private def describeResources(code: String, file: String): String = {
+    val builder = new StringBuilder()
+    for (url <- getResources(file) if !Resources.isDirectory(environment.classLoader, url)) {
+      val connection = url.openConnection()
+      connection.setUseCaches(false)
+      try {
+        builder.append(code).append('|').append(url)
+          .append('|').append(connection.getLastModified)
+          .append('|').append(connection.getContentLengthLong)
+          .append('\n')
+      } finally {
+        // connecting opens a file (or jar file) which is only closed with the input stream
+        try {
+          connection.getInputStream.close()
+        } catch {
+          case _: IOException => // resource could not be opened, nothing to close
+        }
+      }
+    }
+    builder.toString
+  }
+
+  private def loadInParallel(files: Map[String, String]): Map[String, Map[String, String]] = {
+    val parallelism = config.getOptional[Int]("play.i18n.hocon.parallelism")
+      .getOrElse(Runtime.getRuntime.availableProcessors)
+    val executor = Executors.newFixedThreadPool(math.max(1, math.min(parallelism, files.size)))
+    try {
+      val futures = files.map { case (code, file) =>
+        code -> executor.submit(new Callable[Map[String, String]] {
+          override def call(): Map[String, String] = loadMessages(file)
+        })
+      }
+      futures.map { case (code, future) =>
+        try {
+          code -> future.get()
+        } catch {
+          case ex: ExecutionException => throw ex.getCause
+        }
+      }
+    } finally {
+      executor.shutdownNow()
+    }
   }
 
   override protected def joinPaths(first: Option[String], second: String): String = first match {
@@ -69,7 +238,7 @@ class HoconMessagesApiProvider @Inject()(
     environment.classLoader.getResources(joinPaths(messagesPrefix, file)).asIterator().asScala.toSeq
   }
 
-  private def getMessages(url: URL): Map[String, String] = {
+  private def addMessages(url: URL, messages: mutable.Map[String, String]): Unit = {
     // messages.default is bundled with play and it is a properties file
     val config = if (url.toString.endsWith("messages.default")) {
       ConfigFactory.parseProperties(getProperties(url))
@@ -77,10 +246,9 @@ class HoconMessagesApiProvider @Inject()(
       ConfigFactory.parseURL(url)
     }
 
-    // TODO remove asScala
-    config.resolve().entrySet().asScala
-      .map(e => e.getKey -> String.valueOf(e.getValue.unwrapped()))
-      .toMap
+    config.resolve().entrySet().forEach { e =>
+      messages.update(e.getKey, String.valueOf(e.getValue.unwrapped()))
+    }
   }
 
   private def getProperties(url: URL): Properties = {
@@ -103,6 +271,39 @@ class HoconMessagesApiProvider @Inject()(
  *   play.modules.disabled += play.api.i18n.I18nModule
  *   play.modules.enabled += be.ugent.caagt.play.HoconI18nModule
  * }}}
+ *
+ * Message patterns are compiled only once per language, see [[CompiledMessagesApi]]. The maximum number of compiled
+ * messages kept per language can be configured (default 10000):
+ *
+ * {{{
+ *   play.i18n.hocon.cacheSize = 10000
+ * }}}
+ *
+ * By default all message files are loaded one after the other when the messages API is first created. Alternatively,
+ * the messages of each language can be loaded only when they are first used (`lazy`), or all message files can be
+ * loaded concurrently on a bounded number of threads (`parallel`, default number of threads is the number of
+ * available processors):
+ *
+ * {{{
+ *   play.i18n.hocon.loading = eager   # or lazy or parallel
+ *   play.i18n.hocon.parallelism = 4
+ * }}}
+ *
+ * To speed up application startup, all messages can be stored in a binary snapshot file. The snapshot is written
+ * when the application first starts and is reused for as long as the original message files do not change. When a
+ * snapshot is used, the messages of all languages are loaded at once.
+ *
+ * {{{
+ *   play.i18n.hocon.snapshot = "/var/cache/myapp/messages.snapshot"
+ * }}}
+ *
+ * Message files can be reloaded while the application is running. When a reload interval is configured, the
+ * resources of every language are checked periodically and when they have changed, the messages of that language
+ * (only) are reloaded and replace the old messages atomically.
+ *
+ * {{{
+ *   play.i18n.hocon.reload.interval = 30 seconds
+ * }}}
  */
 class HoconI18nModule extends Module {
   def bindings(environment: Environment, configuration: Configuration) = {
@@ -0,0 +1,45 @@
+/*
+ * LazyMessagesMap.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import scala.collection.immutable.AbstractMap
+
+/**
+ * Map from language codes to messages which only loads the messages of a language when they are first
+ * requested. The set of language codes is known in advance.
+ *
+ * Iterating over this map loads the messages of every language.
+ */
+private[play] class LazyMessagesMap(loaders: Map[String, () => Map[String, String]])
+  extends AbstractMap[String, Map[String, String]] {
+
+  private final class Entry(load: () => Map[String, String]) {
+    lazy val messages: Map[String, String] = load()
+  }
+
+  private val entries: Map[String, Entry] = loaders.map { case (code, load) => code -> new Entry(load) }
+
+  override def get(code: String): Option[Map[String, String]] = entries.get(code).map(_.messages)
+
+  override def contains(code: String): Boolean = entries.contains(code)
+
+  override def keySet: Set[String] = entries.keySet
+
+  override def size: Int = entries.size
+
+  override def iterator: Iterator[(String, Map[String, String])] =
+    entries.iterator.map { case (code, entry) => code -> entry.messages }
+
+  override def removed(code: String): Map[String, Map[String, String]] = iterator.toMap.removed(code)
+
+  override def updated[V1 >: Map[String, String]](code: String, value: V1): Map[String, V1] =
+    iterator.toMap.updated(code, value)
+
+}
@@ -0,0 +1,157 @@
+/*
+ * MessagesSnapshot.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import java.io.{BufferedOutputStream, DataOutputStream}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path, StandardCopyOption, StandardOpenOption}
+
+import scala.collection.mutable
+import scala.util.Using
+
+/**
+ * Reads and writes a binary snapshot of all (merged and resolved) messages.
+ *
+ * Layout of the file (all integers are big endian):
+ * {{{
+ *   magic, version                        2 ints
+ *   fingerprint                           int length, followed by the bytes
+ *   string table                          int count, count+1 int offsets, UTF-8 bytes of all strings
+ *   languages                             int count, and for each language:
+ *                                           int code index, int number of entries,
+ *                                           and for each entry: int key index, int value index
+ * }}}
+ * Every string (language code, key or value) is stored only once, so keys that are shared between languages
+ * are also shared in memory after reading.
+ *
+ * The fingerprint identifies the source files from which the snapshot was built. A snapshot with a different
+ * fingerprint is ignored.
+ */
+private[play] object MessagesSnapshot {
+
+  private val Magic = 0x504d5347 // "PMSG"
+
+  private val Version = 1
+
+  /**
+   * Reads the snapshot at the given path, provided it exists and has the expected fingerprint.
+   */
+  def read(path: Path, fingerprint: Array[Byte]): Option[Map[String, Map[String, String]]] = {
+    if (!Files.isRegularFile(path)) {
+      None
+    } else {
+      Using.resource(FileChannel.open(path, StandardOpenOption.READ)) { channel =>
+        val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+        if (buffer.remaining() < 12 || buffer.getInt() != Magic || buffer.getInt() != Version) {
+          None
+        } else {
+          val stored = new Array[Byte](buffer.getInt())
+          buffer.get(stored)
+          if (!java.util.Arrays.equals(stored, fingerprint)) {
+            None
+          } else {
+            Some(readMessages(buffer))
+          }
+        }
+      }
+    }
+  }
+
+  private def readMessages(buffer: ByteBuffer): Map[String, Map[String, String]] = {
+    val strings = readStrings(buffer)
+    val languageCount = buffer.getInt()
+    val result = Map.newBuilder[String, Map[String, String]]
+    for (_ <- 0 until languageCount) {
+      val code = strings(buffer.getInt())
+      val entryCount = buffer.getInt()
+      val messages = Map.newBuilder[String, String]
+      messages.sizeHint(entryCount)
+      for (_ <- 0 until entryCount) {
+        val key = strings(buffer.getInt())
+        messages += key -> strings(buffer.getInt())
+      }
+      result += code -> messages.result()
+    }
+    result.result()
+  }
+
+  private def readStrings(buffer: ByteBuffer): Array[String] = {
+    val count = buffer.getInt()
+    val offsets = new Array[Int](count + 1)
+    for (i <- 0 to count) {
+      offsets(i) = buffer.getInt()
+    }
+    val bytes = new Array[Byte](offsets(count))
+    buffer.get(bytes)
+    val strings = new Array[String](count)
+    for (i <- 0 until count) {
+      strings(i) = new String(bytes, offsets(i), offsets(i + 1) - offsets(i), StandardCharsets.UTF_8)
+    }
+    strings
+  }
+
+  /**
+   * Writes a snapshot of the given messages to the given path. The file is first written
+   * to a temporary file which then replaces the original, so readers never see a partial snapshot.
+   */
+  def write(path: Path, fingerprint: Array[Byte], messages: Map[String, Map[String, String]]): Unit = {
+    // build the string table
+    val indices = mutable.HashMap.empty[String, Int]
+    val strings = mutable.ArrayBuffer.empty[Array[Byte]]
+
+    def index(str: String): Int = indices.getOrElseUpdate(str, {
+      strings += str.getBytes(StandardCharsets.UTF_8)
+      strings.size - 1
+    })
+
+    val languages = messages.toSeq.map { case (code, map) =>
+      (index(code), map.toSeq.map { case (key, value) => (index(key), index(value)) })
+    }
+
+    val parent = path.toAbsolutePath.getParent
+    Files.createDirectories(parent)
+    val temp = Files.createTempFile(parent, path.getFileName.toString, ".tmp")
+    try {
+      Using.resource(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) { out =>
+        out.writeInt(Magic)
+        out.writeInt(Version)
+        out.writeInt(fingerprint.length)
+        out.write(fingerprint)
+
+        out.writeInt(strings.size)
+        var offset = 0
+        out.writeInt(offset)
+        for (bytes <- strings) {
+          offset += bytes.length
+          out.writeInt(offset)
+        }
+        for (bytes <- strings) {
+          out.write(bytes)
+        }
+
+        out.writeInt(languages.size)
+        for ((code, entries) <- languages) {
+          out.writeInt(code)
+          out.writeInt(entries.size)
+          for ((key, value) <- entries) {
+            out.writeInt(key)
+            out.writeInt(value)
+          }
+        }
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    } finally {
+      Files.deleteIfExists(temp)
+    }
+  }
+
+}
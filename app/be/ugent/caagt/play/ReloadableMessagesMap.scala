@@ -0,0 +1,75 @@
+/*
+ * ReloadableMessagesMap.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.collection.immutable.AbstractMap
+
+/**
+ * Map from language codes to messages in which the messages of a single language can be replaced
+ * at run time.
+ *
+ * Replaced languages are kept in a small immutable map that is swapped atomically (copy on write) on top of
+ * the original map. Readers never block and always see either the old or the new messages of a language,
+ * never a mixture of both.
+ */
+private[play] class ReloadableMessagesMap(base: Map[String, Map[String, String]])
+  extends AbstractMap[String, Map[String, String]] {
+
+  private val replaced = new AtomicReference[Map[String, Map[String, String]]](Map.empty)
+
+  /**
+   * Replaces the messages for the given language code
+   */
+  def replace(code: String, messages: Map[String, String]): Unit = {
+    replaced.updateAndGet(_.updated(code, messages))
+  }
+
+  /**
+   * The messages as they are now, unaffected by later replacements
+   */
+  def snapshot: Map[String, Map[String, String]] = new ReloadableMessagesMap.Snapshot(base, replaced.get)
+
+  override def get(code: String): Option[Map[String, String]] = replaced.get.get(code).orElse(base.get(code))
+
+  override def contains(code: String): Boolean = base.contains(code) || replaced.get.contains(code)
+
+  override def iterator: Iterator[(String, Map[String, String])] = snapshot.iterator
+
+  override def removed(code: String): Map[String, Map[String, String]] = snapshot.removed(code)
+
+  override def updated[V1 >: Map[String, String]](code: String, value: V1): Map[String, V1] =
+    snapshot.updated(code, value)
+
+}
+
+private[play] object ReloadableMessagesMap {
+
+  /**
+   * Messages of the original map, with some languages replaced
+   */
+  private final class Snapshot(base: Map[String, Map[String, String]], replaced: Map[String, Map[String, String]])
+    extends AbstractMap[String, Map[String, String]] {
+
+    override def get(code: String): Option[Map[String, String]] = replaced.get(code).orElse(base.get(code))
+
+    override def contains(code: String): Boolean = base.contains(code) || replaced.contains(code)
+
+    override def iterator: Iterator[(String, Map[String, String])] =
+      replaced.iterator ++ base.iterator.filterNot { case (code, _) => replaced.contains(code) }
+
+    override def removed(code: String): Map[String, Map[String, String]] = iterator.toMap.removed(code)
+
+    override def updated[V1 >: Map[String, String]](code: String, value: V1): Map[String, V1] =
+      iterator.toMap.updated(code, value)
+  }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * CursorPager.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Pager for keyset (cursor) pagination. Instead of skipping a number of rows, a page is determined by the
+ * values of the sort keys of the last row of the previous page (or the first row of the next page, when paging
+ * backwards). Typically the sort keys are the value of the sort column of the {@link Sorter} followed by a
+ * unique id that breaks ties.
+ * <p>
+ * The query for a page should retrieve (at most) {@link #getLimit()} rows, i.e., one more than the page size,
+ * sorted on the sort keys, starting after the {@link #getCursor()} values, or before them when {@link #isBackward()},
+ * in which case the sort order must be reversed. The result must then be passed to {@link #page}, which
+ * returns a {@link Page} that knows whether there are more pages and the sort keys needed for {@link Page#next()}
+ * and {@link Page#previous()}. No separate count query is needed.
+ * <p>
+ * A {@link PSF} switches to a cursor pager automatically when the query string contains the corresponding
+ * parameters. To start with a cursor pager, create the initial PSF with a new {@code CursorPager}.
+ * <p>
+ * Routes to the next and previous page must be computed from the {@link Page}, e.g., with {@link PSF#next(Page)}
+ * or {@code Table.next(page)}. The variants without a page throw an exception for a cursor pager.
+ */
+public class CursorPager extends Pager {
+
+    public enum Direction {
+        FIRST, AFTER, BEFORE
+    }
+
+    private final Direction direction;
+
+    private final String[] cursor;
+
+    public CursorPager() {
+        // must exist for query string binder to work
+        this(0);
+    }
+
+    /**
+     * Pager for the first page with the given page size
+     */
+    public CursorPager(int pageSize) {
+        this(0, pageSize, Direction.FIRST, new String[0]);
+    }
+
+    private CursorPager(int pageNr, int pageSize, Direction direction, String[] cursor) {
+        super(pageNr, pageSize);
+        this.direction = direction;
+        this.cursor = cursor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sort key values of the row after (or before) which this page starts. Empty for the first page.
+     */
+    public String[] getCursor() {
+        return cursor.clone();
+    }
+
+    /**
+     * Whether this page must be retrieved in reverse sort order, starting before the cursor
+     */
+    public boolean isBackward() {
+        return direction == Direction.BEFORE;
+    }
+
+    /**
+     * Returns the page for the rows that were retrieved, in the order in which they were retrieved.
+     * The rows of the page are in display order. This pager is not changed.
+     *
+     * @param rows rows retrieved by the query, at most {@link #getLimit()}
+     * @param sortKeys computes the sort key values of a row
+     */
+    public <T> Page<T> page(List<T> rows, Function<T, String[]> sortKeys) {
+        boolean more = rows.size() > getPageSize();
+        List<T> result = new ArrayList<>(more ? rows.subList(0, getPageSize()) : rows);
+        if (isBackward()) {
+            Collections.reverse(result);
+        }
+        if (result.isEmpty()) {
+            return new Page<>(this, result, more, null, null, -1);
+        } else {
+            return new Page<>(this, result, more,
+                    sortKeys.apply(result.get(0)), sortKeys.apply(result.get(result.size() - 1)), -1);
+        }
+    }
+
+    @Override
+    protected boolean hasPrevious(Page<?> page) {
+        return isBackward() ? page.hasMore() : getPageNr() > 0;
+    }
+
+    @Override
+    protected boolean hasNext(Page<?> page) {
+        return isBackward() || page.hasMore();
+    }
+
+    /**
+     * Not supported: the cursor of the next page is only known from the rows of this page. Use {@link Page#next()}
+     * (or {@link PSF#next(Page)}) instead.
+     *
+     * @throws IllegalStateException always
+     */
+    @Override
+    public Pager next() {
+        throw new IllegalStateException("The next page of a cursor pager can only be obtained from a Page");
+    }
+
+    /**
+     * Not supported: the cursor of the previous page is only known from the rows of this page. Use
+     * {@link Page#previous()} (or {@link PSF#previous(Page)}) instead.
+     *
+     * @throws IllegalStateException always
+     */
+    @Override
+    public Pager previous() {
+        throw new IllegalStateException("The previous page of a cursor pager can only be obtained from a Page");
+    }
+
+    @Override
+    protected Pager next(Page<?> page) {
+        String[] lastKeys = page.getLastKeys();
+        if (lastKeys == null) {
+            return this;
+        } else {
+            return new CursorPager(getPageNr() + 1, getPageSize(), Direction.AFTER, lastKeys);
+        }
+    }
+
+    @Override
+    protected Pager previous(Page<?> page) {
+        String[] firstKeys = page.getFirstKeys();
+        if (getPageNr() <= 1 || firstKeys == null) {
+            return getFirst();
+        } else {
+            return new CursorPager(getPageNr() - 1, getPageSize(), Direction.BEFORE, firstKeys);
+        }
+    }
+
+    @Override
+    public Pager getFirst() {
+        return new CursorPager(getPageSize());
+    }
+
+    @Override
+    public Pager resize(int size) {
+        return new CursorPager(getPageNr() * getPageSize() / size, size, direction, cursor);
+    }
+
+    /**
+     * Returns the first page, because the cursor is no longer valid when the sort order changes
+     */
+    @Override
+    public Pager resort() {
+        return getFirst();
+    }
+
+    @Override
+    public Optional<Pager> bind(String key, Map<String, String[]> data) {
+        Integer nr = intValue(data, key + ".nr");
+        Integer size = intValue(data, key + ".size");
+        if (nr == null || size == null) {
+            return Optional.empty();
+        }
+        Direction direction;
+        String[] directions = data.get(key + ".dir");
+        if (directions == null) {
+            direction = Direction.FIRST;
+        } else if (directions.length != 1) {
+            return Optional.empty();
+        } else {
+            try {
+                direction = Direction.valueOf(directions[0].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                return Optional.empty();
+            }
+        }
+        String[] keys = data.get(key + ".key");
+        String[] cursor = direction == Direction.FIRST || keys == null ? new String[0] : keys.clone();
+        return Optional.of(new CursorPager(nr, size, direction, cursor));
+    }
+
+    @Override
+    public String unbind(String key) {
+        StringBuilder builder = new StringBuilder(super.unbind(key));
+        builder.append('&').append(key).append(".dir=").append(direction.name().toLowerCase(Locale.ROOT));
+        for (String value : cursor) {
+            builder.append('&').append(key).append(".key=").append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (super.equals(obj)) {
+            CursorPager that = (CursorPager) obj;
+            return this.direction == that.direction && Arrays.equals(this.cursor, that.cursor);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + direction.hashCode()) + Arrays.hashCode(cursor);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * FilterColumn.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+/**
+ * Can be implemented by an enum that defines the filter columns of a table, to assign
+ * a type to each column. Columns of an enum that does not implement this interface are
+ * all of type {@link FilterType#STRING}.
+ *
+ * @see TypedFilter
+ */
+public interface FilterColumn {
+
+    FilterType getFilterType();
+
+    /**
+     * The enum class of the values of a column of type {@link FilterType#ENUM}. Must be overridden
+     * when there are such columns: {@link TypedFilter} rejects ENUM columns without an enum type.
+     */
+    default Class<? extends Enum<?>> getEnumType() {
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * FilterType.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+/**
+ * Type of the value of a filter column, used by {@link TypedFilter} to parse filter values.
+ */
+public enum FilterType {
+    /**
+     * Value is used as is
+     */
+    STRING,
+    /**
+     * Value must match part of the column, ignoring case. Also available as a pattern for SQL {@code LIKE}.
+     */
+    LIKE,
+    /**
+     * Integer value
+     */
+    INT,
+    /**
+     * Long integer value
+     */
+    LONG,
+    /**
+     * Date in ISO format (yyyy-mm-dd)
+     */
+    DATE,
+    /**
+     * Name of an enum constant, see {@link FilterColumn#getEnumType()}
+     */
+    ENUM
+}
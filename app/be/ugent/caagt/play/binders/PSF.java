@@ -11,25 +11,53 @@ package be.ugent.caagt.play.binders;
 
 import play.mvc.QueryStringBindable;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 
 /**
- * Combines pager sorter and string map (filter) into a single binder
+ * Combines pager sorter and string map (filter) into a single binder.
+ * <p>
+ * A PSF is an immutable value: its query string and key are computed only once. The PSF keeps a private copy
+ * of the string map it was created with, and {@link #getFilter()} returns an unmodifiable view of that copy.
+ * Use {@link #withFilter} or {@link #refilter} to obtain a PSF with a different filter.
  */
 public class PSF implements QueryStringBindable<PSF> {
 
+    private static volatile int maxParameters = 1000;
+
     private final Pager pager;
 
     private final Sorter sorter;
 
-    private final StringMap filter;
+    private final StringMap filter; // private copy, never changed
+
+    private final Map<String, String> filterView;
+
+    private String key; // computed lazily
+
+    private Unbound unbound; // last result of unbind
+
+    private TypedFilter<?> typedFilter; // last result of getTypedFilter
+
+    private static final class Unbound {
+        final String prefix;
+        final String value;
+
+        Unbound(String prefix, String value) {
+            this.prefix = prefix;
+            this.value = value;
+        }
+    }
 
     public PSF(Pager pager, Sorter sorter, StringMap filter) {
         this.pager = pager;
         this.sorter = sorter;
-        this.filter = filter;
+        this.filter = new StringMap();
+        this.filter.putAll(filter);
+        this.filterView = Collections.unmodifiableMap(this.filter);
     }
 
     public PSF() {
@@ -43,8 +71,12 @@ public class PSF implements QueryStringBindable<PSF> {
         this(new Pager(0,pageSize), new Sorter(sortColumn, asc), new StringMap());
     }
 
-    public StringMap getFilter() {
-        return filter;
+    /**
+     * The filter of this PSF, as an unmodifiable map. (In earlier versions this was the string map itself, and
+     * changing it changed the PSF. Use {@link #withFilter} instead.)
+     */
+    public Map<String, String> getFilter() {
+        return filterView;
     }
 
     public Sorter getSorter() {
@@ -55,12 +87,39 @@ public class PSF implements QueryStringBindable<PSF> {
         return pager;
     }
 
+    /**
+     * Changes the maximum number of parameters of a query string from which a PSF can be bound. Binding fails
+     * for query strings with more parameters. Default 1000.
+     */
+    public static void setMaxParameters(int maxParameters) {
+        PSF.maxParameters = maxParameters;
+    }
+
+    /**
+     * Returns a new PSF with the values from the query string. Uses a {@link CursorPager} instead of a plain pager
+     * when the query string contains a cursor direction.
+     * <p>
+     * The parameters that start with the given key are selected in a single pass, and only those are
+     * examined by pager, sorter and filter. Query strings with an excessive number of parameters are rejected.
+     */
     @Override
     public Optional<PSF> bind(String s, Map<String, String[]> map) {
-        if (pager.bind(s+".p", map).isPresent() &&
-                sorter.bind(s+".s", map).isPresent() &&
-                filter.bind(s+".f",map).isPresent()) {
-            return Optional.of(this);
+        if (map.size() > maxParameters) {
+            return Optional.empty();
+        }
+        String prefix = s + ".";
+        Map<String, String[]> data = new HashMap<>();
+        for (Map.Entry<String, String[]> entry : map.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                data.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        Pager pagerBinder = data.containsKey("p.dir") ? new CursorPager() : pager;
+        Optional<Pager> boundPager = pagerBinder.bind("p", data);
+        Optional<Sorter> boundSorter = sorter.bind("s", data);
+        Optional<StringMap> boundFilter = filter.bind("f", data);
+        if (boundPager.isPresent() && boundSorter.isPresent() && boundFilter.isPresent()) {
+            return Optional.of(new PSF(boundPager.get(), boundSorter.get(), boundFilter.get()));
         } else {
             return Optional.empty();
         }
@@ -68,14 +127,51 @@ public class PSF implements QueryStringBindable<PSF> {
 
     @Override
     public String unbind(String s) {
-        String part1 = pager.unbind(s + ".p") + "&" + sorter.unbind(s + ".s");
-        String part2 = filter.unbind(s + ".f");
+        Unbound result = unbound;
+        if (result == null || !result.prefix.equals(s)) {
+            result = new Unbound(s, encode(s + "."));
+            unbound = result;
+        }
+        return result.value;
+    }
+
+    private String encode(String prefix) {
+        String part1 = pager.unbind(prefix + "p") + "&" + sorter.unbind(prefix + "s");
+        String part2 = filter.unbind(prefix + "f");
         if (part2 == null || part2.trim().isEmpty()) {
             return part1;
         } else {
             return part1 + "&" + part2;
         }
+    }
 
+    /**
+     * Returns a string that identifies this PSF. PSFs that denote the same page, sort order and filter have
+     * the same key, regardless of the order in which the filter entries were added.
+     */
+    public String getKey() {
+        String result = key;
+        if (result == null) {
+            result = encode("");
+            key = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof PSF that) {
+            return this.pager.equals(that.pager) && this.getKey().equals(that.getKey());
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return getKey().hashCode();
     }
 
     @Override
@@ -88,14 +184,36 @@ public class PSF implements QueryStringBindable<PSF> {
      * ===================
      */
 
+    /**
+     * PSF for the previous page
+     *
+     * @throws IllegalStateException for a {@link CursorPager}, use {@link #previous(Page)} instead
+     */
     public PSF previous() {
         return new PSF (pager.previous(), sorter, filter);
     }
+    /**
+     * PSF for the next page
+     *
+     * @throws IllegalStateException for a {@link CursorPager}, use {@link #next(Page)} instead
+     */
     public PSF next() {
         return new PSF (pager.next(), sorter, filter);
     }
+    /**
+     * PSF for the page before the given page, which was obtained from the pager of this PSF
+     */
+    public PSF previous(Page<?> page) {
+        return new PSF (page.previous(), sorter, filter);
+    }
+    /**
+     * PSF for the page after the given page, which was obtained from the pager of this PSF
+     */
+    public PSF next(Page<?> page) {
+        return new PSF (page.next(), sorter, filter);
+    }
     public PSF resort(String field) {
-        return new PSF(pager,sorter.forColumn(field),filter);
+        return new PSF(pager.resort(),sorter.forColumn(field),filter);
     }
     public PSF resize(int size) {
         return new PSF (pager.resize(size), sorter, filter);
@@ -103,6 +221,20 @@ public class PSF implements QueryStringBindable<PSF> {
     public PSF refilter(StringMap newFilter) {
         return new PSF (pager.getFirst(), sorter, newFilter);
     }
+    /**
+     * PSF for the first page with the filter of this PSF, except that the given key has the given value.
+     * The key is removed from the filter when the value is null or blank.
+     */
+    public PSF withFilter(String key, String value) {
+        StringMap newFilter = new StringMap();
+        newFilter.putAll(filter);
+        if (value == null || value.isBlank()) {
+            newFilter.remove(key);
+        } else {
+            newFilter.put(key, value);
+        }
+        return refilter(newFilter);
+    }
 
     /**
      * Returns an optional filter value. Null or blank values are reported as not present.
@@ -132,6 +264,22 @@ public class PSF implements QueryStringBindable<PSF> {
         }
     }
 
+    /**
+     * Returns the filter values parsed according to the given column type. The result is computed only once
+     * for the same column type.
+     *
+     * @see TypedFilter
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> TypedFilter<E> getTypedFilter(Class<E> columnType) {
+        TypedFilter<?> result = typedFilter;
+        if (result == null || result.getColumnType() != columnType) {
+            result = new TypedFilter<>(filter, columnType);
+            typedFilter = result;
+        }
+        return (TypedFilter<E>) result;
+    }
+
     public boolean isAscending() {
         return sorter.isAscending();
     }
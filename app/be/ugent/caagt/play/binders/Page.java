@@ -0,0 +1,130 @@
+/*
+ * Page.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Outcome of paging without a count: the rows to be displayed on a page, together with what was learned
+ * while retrieving them, i.e., whether there is a next page and, for a {@link CursorPager}, the sort keys of the
+ * first and last row. Obtained from {@link Pager#page} or {@link CursorPager#page(List, java.util.function.Function)}.
+ * <p>
+ * Immutable. The pager itself is not changed by paging.
+ */
+public final class Page<T> {
+
+    private final Pager pager;
+
+    private final List<T> rows;
+
+    private final boolean more;
+
+    private final String[] firstKeys;
+
+    private final String[] lastKeys;
+
+    private final int estimatedTotal;
+
+    Page(Pager pager, List<T> rows, boolean more, String[] firstKeys, String[] lastKeys, int estimatedTotal) {
+        this.pager = pager;
+        this.rows = rows;
+        this.more = more;
+        this.firstKeys = firstKeys;
+        this.lastKeys = lastKeys;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    /**
+     * The pager for which this page was retrieved
+     */
+    public Pager getPager() {
+        return pager;
+    }
+
+    /**
+     * The rows to be displayed, in display order
+     */
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Whether more rows were retrieved than fit on this page
+     */
+    boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Sort key values of the first row, or null when unknown
+     */
+    String[] getFirstKeys() {
+        return firstKeys;
+    }
+
+    /**
+     * Sort key values of the last row, or null when unknown
+     */
+    String[] getLastKeys() {
+        return lastKeys;
+    }
+
+    public boolean hasNext() {
+        return pager.hasNext(this);
+    }
+
+    public boolean hasPrevious() {
+        return pager.hasPrevious(this);
+    }
+
+    /**
+     * Pager for the next page
+     */
+    public Pager next() {
+        return pager.next(this);
+    }
+
+    /**
+     * Pager for the previous page
+     */
+    public Pager previous() {
+        return pager.previous(this);
+    }
+
+    /**
+     * Index (starting from 1) of the first row on this page
+     */
+    public int getStart() {
+        return pager.getStart();
+    }
+
+    /**
+     * Index (starting from 1) of the last row on this page
+     */
+    public int getEnd() {
+        return pager.getStart() + rows.size() - 1;
+    }
+
+    /**
+     * Returns a copy of this page with the given estimate of the total number of rows, e.g., a cached or
+     * approximate count
+     */
+    public Page<T> withEstimatedTotal(int estimatedTotal) {
+        return new Page<>(pager, rows, more, firstKeys, lastKeys, estimatedTotal);
+    }
+
+    /**
+     * Estimate of the total number of rows, if one was registered
+     */
+    public OptionalInt getEstimatedTotal() {
+        return estimatedTotal < 0 ? OptionalInt.empty() : OptionalInt.of(estimatedTotal);
+    }
+}
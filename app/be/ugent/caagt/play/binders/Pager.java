@@ -11,19 +11,27 @@ package be.ugent.caagt.play.binders;
 
 import play.mvc.QueryStringBindable;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * Query string parameter for paged tables. Keeps track of page number and page size.
  * <p>
+ * Can be used with an exact count of all rows, or without a count. In the latter case the query should retrieve
+ * {@link #getLimit()} rows, one more than the page size, starting at {@link #getOffset()}, and pass the result
+ * to {@link #page}, which returns a {@link Page} that knows whether there is a next page. An estimated total
+ * (e.g., from a {@link be.ugent.caagt.play.util.CountCache}) can be registered with that page for display.
+ * <p>
+ * A pager is an immutable value.
+ * <p>
  * Note: currently cannot be used in Javascript routes.
  */
 public class Pager implements QueryStringBindable<Pager> {
 
-    private int pageNr;
+    private final int pageNr;
 
-    private int pageSize; // public for ease of use in templates
+    private final int pageSize;
 
     public int getPageNr() {
         return pageNr;
@@ -35,6 +43,7 @@ public class Pager implements QueryStringBindable<Pager> {
 
     public Pager () {
         // must exist for query string binder to work
+        this(0, 0);
     }
 
     public Pager(int pageNr, int pageSize) {
@@ -46,10 +55,65 @@ public class Pager implements QueryStringBindable<Pager> {
         return pageNr > 0;
     }
 
+    /**
+     * Whether there is a next page, given the total number of rows
+     */
     public boolean hasNext(int count) {
         return pageSize*(pageNr+1) < count;
     }
 
+    /**
+     * Index of the first row of this page, starting from 0
+     */
+    public int getOffset() {
+        return pageSize * pageNr;
+    }
+
+    /**
+     * Maximum number of rows to retrieve for this page when no count is available. One more than the page size,
+     * so that it can be determined whether there is a next page.
+     */
+    public int getLimit() {
+        return pageSize + 1;
+    }
+
+    /**
+     * Returns the page for the rows that were retrieved (at most {@link #getLimit()}). Its rows are all
+     * rows except the extra one. This pager is not changed.
+     */
+    public <T> Page<T> page(List<T> rows) {
+        boolean more = rows.size() > pageSize;
+        return new Page<>(this, more ? rows.subList(0, pageSize) : rows, more, null, null, -1);
+    }
+
+    /**
+     * Whether there is a page after the given page, which was obtained from this pager
+     */
+    protected boolean hasNext(Page<?> page) {
+        return page.hasMore();
+    }
+
+    /**
+     * Whether there is a page before the given page, which was obtained from this pager
+     */
+    protected boolean hasPrevious(Page<?> page) {
+        return hasPrevious();
+    }
+
+    /**
+     * Pager for the page after the given page, which was obtained from this pager
+     */
+    protected Pager next(Page<?> page) {
+        return next();
+    }
+
+    /**
+     * Pager for the page before the given page, which was obtained from this pager
+     */
+    protected Pager previous(Page<?> page) {
+        return previous();
+    }
+
     public Pager next() {
         return new Pager(pageNr + 1, pageSize);
     }
@@ -62,6 +126,9 @@ public class Pager implements QueryStringBindable<Pager> {
         return pageSize * pageNr + 1;
     }
 
+    /**
+     * Index (starting from 1) of the last row on this page, given the total number of rows
+     */
     public int getEnd(int count) {
         return Math.min (count, pageSize*(pageNr+1));
     }
@@ -74,23 +141,44 @@ public class Pager implements QueryStringBindable<Pager> {
         return new Pager (pageNr * pageSize / size, size);
     }
 
-    @Override
-    public Optional<Pager> bind(String key, Map<String, String[]> data) {
-        String[] nrs = data.get(key + ".nr");
-        String[] sizes = data.get(key + ".size");
-        if (nrs == null || sizes == null || nrs.length != 1 || sizes.length != 1) {
-            return Optional.empty();
+    /**
+     * Returns the pager to be used when the sort order changes. This implementation
+     * returns this pager.
+     */
+    public Pager resort() {
+        return this;
+    }
+
+    /**
+     * Returns the single integer value for the given key, or null if there is no such value
+     */
+    protected static Integer intValue(Map<String, String[]> data, String key) {
+        String[] values = data.get(key);
+        if (values == null || values.length != 1) {
+            return null;
         } else {
             try {
-                pageNr = Integer.parseInt(nrs[0]);
-                pageSize = Integer.parseInt(sizes[0]);
-                return Optional.of(this);
+                return Integer.parseInt(values[0]);
             } catch (NumberFormatException ex) {
-                return Optional.empty();
+                return null;
             }
         }
     }
 
+    /**
+     * Returns a new pager with the values from the query string. This pager is not changed.
+     */
+    @Override
+    public Optional<Pager> bind(String key, Map<String, String[]> data) {
+        Integer nr = intValue(data, key + ".nr");
+        Integer size = intValue(data, key + ".size");
+        if (nr == null || size == null) {
+            return Optional.empty();
+        } else {
+            return Optional.of(new Pager(nr, size));
+        }
+    }
+
     @Override
     public String unbind(String key) {
         return key +".nr=" + pageNr + "&" + key + ".size=" + pageSize;
@@ -100,6 +188,23 @@ public class Pager implements QueryStringBindable<Pager> {
     public String javascriptUnbind() {
         return null; // TODO
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj != null && obj.getClass() == getClass()) {
+            Pager that = (Pager) obj;
+            return this.pageNr == that.pageNr && this.pageSize == that.pageSize;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * pageNr + pageSize;
+    }
 }
 
 
@@ -14,18 +14,22 @@ import play.mvc.QueryStringBindable;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
- * Query string parameter for paged tables. Keeps track of which column to sort and in which direction
+ * Query string parameter for paged tables. Keeps track of which column to sort and in which direction.
+ * Immutable.
  * <p>
  * Note: currently cannot be used in Javascript routes.
  */
 public class Sorter implements QueryStringBindable<Sorter> {
 
-    private String sortColumn;
+    private final String sortColumn;
 
-    private boolean ascending;
+    private final boolean ascending;
+
+    private String encoded; // cached URL encoded value, computed lazily
 
     public Sorter(String sortColumn, boolean ascending) {
         this.sortColumn = sortColumn;
@@ -34,6 +38,7 @@ public class Sorter implements QueryStringBindable<Sorter> {
 
     public Sorter() {
         // needed for query string binder to work
+        this(null, false);
     }
 
     public String getSortColumn() {
@@ -65,28 +70,31 @@ public class Sorter implements QueryStringBindable<Sorter> {
         }
     }
 
+    /**
+     * Returns a new sorter with the values from the query string. This sorter is not changed.
+     */
     @Override
     public Optional<Sorter> bind(String key, Map<String, String[]> map) {
         String[] values = map.get(key);
         if (values == null || values.length != 1) {
             return Optional.empty();
+        } else if (values[0].startsWith("+")) {
+            return Optional.of(new Sorter(values[0].substring(1), true));
+        } else if (values[0].startsWith("-")) {
+            return Optional.of(new Sorter(values[0].substring(1), false));
         } else {
-            if (values[0].startsWith("+")) {
-                this.ascending = true;
-            } else if (values[0].startsWith("-")) {
-                this.ascending = false;
-            } else {
-                return Optional.empty();
-            }
-            // if correct syntax
-            this.sortColumn = values[0].substring(1);
-            return Optional.of(this);
+            return Optional.empty();
         }
     }
 
     @Override
     public String unbind(String key) {
-        return key + "=" + URLEncoder.encode((ascending ? "+" : "-") + sortColumn, StandardCharsets.UTF_8);
+        String result = encoded;
+        if (result == null) {
+            result = URLEncoder.encode((ascending ? "+" : "-") + sortColumn, StandardCharsets.UTF_8);
+            encoded = result;
+        }
+        return key + "=" + result;
     }
 
     @Override
@@ -94,4 +102,20 @@ public class Sorter implements QueryStringBindable<Sorter> {
         return null;   // TODO?
 
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof Sorter that) {
+            return this.ascending == that.ascending && Objects.equals(this.sortColumn, that.sortColumn);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortColumn, ascending);
+    }
 }
@@ -14,17 +14,36 @@ import play.mvc.QueryStringBindable;
 import java.io.Serial;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
- * Represents a map of strings to strings that can be used in a query string.
+ * Represents a map of strings to strings that can be used in a query string. Entries are unbound in the order
+ * of their keys, so that equal maps always produce the same query string.
  *
  * Note: currently cannot be used in Javascript routes.
  */
 public class StringMap extends HashMap<String,String> implements QueryStringBindable<StringMap> {
 
+    private static volatile int maxEntries = 64;
+
+    private static volatile int maxKeyLength = 100;
+
+    private static volatile int maxValueLength = 1000;
+
+    /**
+     * Changes the limits that are imposed on string maps bound from a query string. When a query string contains
+     * more entries for the map, or a longer key or value than allowed, binding fails. Defaults are 64 entries,
+     * keys of 100 characters and values of 1000 characters.
+     */
+    public static void setLimits(int maxEntries, int maxKeyLength, int maxValueLength) {
+        StringMap.maxEntries = maxEntries;
+        StringMap.maxKeyLength = maxKeyLength;
+        StringMap.maxValueLength = maxValueLength;
+    }
+
     /**
      * Creates an empty string map. Needed for query string binding to work.
      */
@@ -57,38 +76,58 @@ public class StringMap extends HashMap<String,String> implements QueryStringBind
         }
     }
 
+    /**
+     * Returns a new string map with the values from the query string. This map is not changed.
+     * Fails when the query string exceeds the limits set by {@link #setLimits}.
+     */
     @Override
     public Optional<StringMap> bind(String key, Map<String, String[]> data) {
         String prefix = key + ".";
+        int count = 0;
+        StringMap result = new StringMap();
         for (Entry<String, String[]> entry : data.entrySet()) {
             if (entry.getKey().startsWith(prefix)) {
                 String[] values = entry.getValue();
-                if (values.length > 1) {
+                String mapKey = entry.getKey().substring(prefix.length());
+                count++;
+                if (values.length > 1 || count > maxEntries || mapKey.length() > maxKeyLength) {
                     return Optional.empty(); //
                 } else if (values.length == 1 && !values[0].trim().isEmpty()) {
-                    put(entry.getKey().substring(prefix.length()), values[0]);
+                    if (values[0].length() > maxValueLength) {
+                        return Optional.empty();
+                    }
+                    result.put(mapKey, values[0]);
                 }
             }
         }
-        return Optional.of(this);
+        return Optional.of(result);
     }
 
     @Override
     public String unbind(String key) {
-        if (isEmpty()) {
+        return unbind(key, this);
+    }
+
+    /**
+     * Unbinds the given map as if it were a string map, i.e., in the order of its keys
+     */
+    public static String unbind(String key, Map<String, String> map) {
+        if (map.isEmpty()) {
             return "";
         }
-        StringBuilder builder = new StringBuilder();
-        for (Entry<String, String> entry : entrySet()) {
-            String value = entry.getValue();
+        StringBuilder builder = new StringBuilder(32 * map.size());
+        String[] keys = map.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        for (String mapKey : keys) {
+            String value = map.get(mapKey);
             if (value != null && !value.trim().isEmpty()) {
                 builder.append("&")
-                        .append(key).append(".").append(entry.getKey())
+                        .append(key).append(".").append(mapKey)
                         .append("=")
                         .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
             }
         }
-        return builder.substring(1);
+        return builder.length() == 0 ? "" : builder.substring(1);
     }
 
     @Override
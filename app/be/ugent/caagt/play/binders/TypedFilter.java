@@ -0,0 +1,209 @@
+/*
+ * TypedFilter.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filter values of a string map, parsed once into typed values. The filter columns are the
+ * constants of an enum, which can implement {@link FilterColumn} to specify the type of each column.
+ * <p>
+ * Values that are blank or cannot be parsed according to the type of the column are treated as absent.
+ * Use {@link PSF#getTypedFilter(Class)} to obtain a typed filter for the filter of a PSF.
+ */
+public class TypedFilter<E extends Enum<E>> {
+
+    private final Class<E> columnType;
+
+    private final EnumMap<E, Object> values; // parsed values, LIKE values are stored in lower case
+
+    private final EnumMap<E, String> strings; // original values
+
+    /**
+     * @throws IllegalArgumentException when a column of type {@link FilterType#ENUM} does not specify
+     * its {@link FilterColumn#getEnumType() enum type}
+     */
+    public TypedFilter(Map<String, String> filter, Class<E> columnType) {
+        this.columnType = columnType;
+        this.values = new EnumMap<>(columnType);
+        this.strings = new EnumMap<>(columnType);
+        for (E column : columnType.getEnumConstants()) {
+            if (filterType(column) == FilterType.ENUM && ((FilterColumn) column).getEnumType() == null) {
+                throw new IllegalArgumentException("Filter column " + columnType.getName() + "." + column.name()
+                        + " is of type ENUM but has no enum type");
+            }
+            String value = filter.get(column.name());
+            if (value != null && !value.isBlank()) {
+                Object parsed = parse(value.trim(), column);
+                if (parsed != null) {
+                    values.put(column, parsed);
+                    strings.put(column, value);
+                }
+            }
+        }
+    }
+
+    public Class<E> getColumnType() {
+        return columnType;
+    }
+
+    private static FilterType filterType(Enum<?> column) {
+        if (column instanceof FilterColumn filterColumn) {
+            return filterColumn.getFilterType();
+        } else {
+            return FilterType.STRING;
+        }
+    }
+
+    private static Object parse(String value, Enum<?> column) {
+        try {
+            switch (filterType(column)) {
+                case LIKE:
+                    return value.toLowerCase(Locale.ROOT);
+                case INT:
+                    return Integer.parseInt(value);
+                case LONG:
+                    return Long.parseLong(value);
+                case DATE:
+                    return LocalDate.parse(value);
+                case ENUM:
+                    for (Enum<?> constant : ((FilterColumn) column).getEnumType().getEnumConstants()) {
+                        if (constant.name().equalsIgnoreCase(value)) {
+                            return constant;
+                        }
+                    }
+                    return null;
+                default:
+                    return value;
+            }
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether a (valid) value is present for the given column
+     */
+    public boolean isPresent(E column) {
+        return values.containsKey(column);
+    }
+
+    /**
+     * Whether no values are present
+     */
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * The original string value for the given column, provided it is valid
+     */
+    public Optional<String> getString(E column) {
+        return Optional.ofNullable(strings.get(column));
+    }
+
+    public OptionalInt getInt(E column) {
+        return values.get(column) instanceof Integer value ? OptionalInt.of(value) : OptionalInt.empty();
+    }
+
+    public OptionalLong getLong(E column) {
+        Object value = values.get(column);
+        if (value instanceof Long longValue) {
+            return OptionalLong.of(longValue);
+        } else if (value instanceof Integer intValue) {
+            return OptionalLong.of(intValue);
+        } else {
+            return OptionalLong.empty();
+        }
+    }
+
+    public Optional<LocalDate> getDate(E column) {
+        return values.get(column) instanceof LocalDate value ? Optional.of(value) : Optional.empty();
+    }
+
+    public <T extends Enum<T>> Optional<T> getEnum(E column, Class<T> enumType) {
+        Object value = values.get(column);
+        return enumType.isInstance(value) ? Optional.of(enumType.cast(value)) : Optional.empty();
+    }
+
+    /**
+     * Pattern for use with SQL {@code LIKE} (with escape character '\') that matches strings which contain
+     * the value for the given column. Only for columns of type {@link FilterType#LIKE}. The pattern is in lower case.
+     */
+    public Optional<String> getLikePattern(E column) {
+        if (filterType(column) == FilterType.LIKE && values.get(column) instanceof String value) {
+            StringBuilder builder = new StringBuilder(value.length() + 4).append('%');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                if (ch == '%' || ch == '_' || ch == '\\') {
+                    builder.append('\\');
+                }
+                builder.append(ch);
+            }
+            return Optional.of(builder.append('%').toString());
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a predicate that checks whether the column value of a row, as computed by the given extractor,
+     * matches the filter value for the given column. Always true when no value is present for that column.
+     * <p>
+     * Columns of type {@link FilterType#LIKE} match when the string value of the row contains the filter value,
+     * ignoring case. Other columns match when the row value is equal to the filter value. Integer values also match
+     * long values and vice versa.
+     */
+    public <T> Predicate<T> predicate(E column, Function<? super T, ?> extractor) {
+        Object value = values.get(column);
+        if (value == null) {
+            return row -> true;
+        } else if (filterType(column) == FilterType.LIKE) {
+            String needle = (String) value;
+            return row -> {
+                Object rowValue = extractor.apply(row);
+                return rowValue != null && rowValue.toString().toLowerCase(Locale.ROOT).contains(needle);
+            };
+        } else if (value instanceof Integer || value instanceof Long) {
+            long number = ((Number) value).longValue();
+            return row -> extractor.apply(row) instanceof Number rowValue
+                    && (rowValue instanceof Integer || rowValue instanceof Long)
+                    && rowValue.longValue() == number;
+        } else {
+            return row -> Objects.equals(value, extractor.apply(row));
+        }
+    }
+
+    /**
+     * Combines the predicates of all columns for which both a value is present and an extractor is given.
+     * Columns without an extractor are ignored.
+     */
+    public <T> Predicate<T> predicate(Map<E, ? extends Function<? super T, ?>> extractors) {
+        Predicate<T> result = null;
+        for (E column : values.keySet()) {
+            Function<? super T, ?> extractor = extractors.get(column);
+            if (extractor != null) {
+                Predicate<T> predicate = predicate(column, extractor);
+                result = result == null ? predicate : result.and(predicate);
+            }
+        }
+        return result == null ? row -> true : result;
+    }
+}
@@ -9,15 +9,20 @@
 
 package be.ugent.caagt.play.controllers;
 
+import be.ugent.caagt.play.metrics.Metrics;
+import be.ugent.caagt.play.metrics.MetricsProvider;
 import com.typesafe.config.Config;
+import play.api.routing.HandlerDef;
 import play.i18n.Messages;
 import play.i18n.MessagesApi;
 import play.libs.typedmap.TypedKey;
 import play.mvc.Action;
 import play.mvc.Http;
 import play.mvc.Result;
+import play.routing.Router;
 
 import javax.inject.Inject;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -35,12 +40,45 @@ public class BaseAction extends Action.Simple {
 
     public static final TypedKey<Messages> MESSAGES = TypedKey.create("Messages");
 
+    /**
+     * Also records the number of requests in progress and, per route, the time needed to handle a request.
+     * These are reported to {@link MetricsProvider#get() metrics} as counter {@code requests.inflight} and
+     * timers {@code request <controller>.<method>}. Resolving the messages is timed separately.
+     */
     @Override
     public CompletionStage<Result> call(Http.Request request) {
-        return delegate.call(
-                request.addAttr(PLAY_CONFIGURATION, configuration)
-                        .addAttr(MESSAGES, messagesApi.preferred(request))
-        );
+        Metrics metrics = MetricsProvider.get();
+        long start = System.nanoTime();
+        metrics.add("requests.inflight", 1);
+        try {
+            Messages messages = messagesApi.preferred(request);
+            metrics.record("messages.preferred", System.nanoTime() - start);
+            String timer = "request " + route(request);
+            return delegate.call(
+                    request.addAttr(PLAY_CONFIGURATION, configuration)
+                            .addAttr(MESSAGES, messages)
+            ).whenComplete((result, ex) -> {
+                metrics.add("requests.inflight", -1);
+                metrics.record(timer, System.nanoTime() - start);
+            });
+        } catch (RuntimeException ex) {
+            metrics.add("requests.inflight", -1);
+            throw ex;
+        }
+    }
+
+    /**
+     * Identifies the route of the given request: controller and method when available, and otherwise
+     * only the request method. (The path is not used, as paths with ids would create an unbounded number
+     * of timers.)
+     */
+    private static String route(Http.Request request) {
+        Optional<HandlerDef> handler = request.attrs().getOptional(Router.Attrs.HANDLER_DEF);
+        if (handler.isPresent()) {
+            return handler.get().controller() + "." + handler.get().method();
+        } else {
+            return request.method() + " <unrouted>";
+        }
     }
 
 }
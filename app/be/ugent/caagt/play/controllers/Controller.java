@@ -10,12 +10,22 @@
 package be.ugent.caagt.play.controllers;
 
 import be.ugent.caagt.play.deputies.Deputy;
+import be.ugent.caagt.play.deputies.DeputyExecutor;
+import be.ugent.caagt.play.metrics.MetricsProvider;
 import com.typesafe.config.Config;
 import play.data.FormFactory;
 import play.i18n.MessagesApi;
 import play.mvc.Http;
+import play.mvc.Result;
 
 import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -38,17 +48,163 @@ public class Controller<H extends Deputy> extends play.mvc.Controller {
     @Inject
     MessagesApi messagesApi;
 
+    /**
+     * Configuration key for the default maximum number of deputies of a single controller that run concurrently
+     */
+    public static final String CONCURRENCY_KEY = "play.deputies.concurrency";
+
+    private volatile Limiter limiter; // created lazily, configuration is injected after construction
+
     /**
      * Creates a deputy to handle the given request
      */
     protected H createDeputy(Http.Request request) {
+        long start = System.nanoTime();
         H deputy = deputyFactory.get();
         deputy.setRequest(request);
         deputy.setConfig(config);
         deputy.setFormFactory(formFactory);
         deputy.setMessagesApi(messagesApi);
         deputy.setParent(this);
+        MetricsProvider.get().record("deputy.create", System.nanoTime() - start);
         return deputy;
     }
 
+    /**
+     * Handles the given request asynchronously. The deputy is created on the calling thread and
+     * then passed to the given action, which is run by the {@link #getExecutor() executor} of this controller.
+     * Typical use:
+     * <pre>
+     * public CompletionStage&lt;Result&gt; list(Http.Request request, PSF psf) {
+     *     return async(request, deputy -&gt; deputy.list(psf));
+     * }
+     * </pre>
+     * At most {@link #getConcurrencyLimit()} actions of this controller run at the same time. Other actions
+     * are queued, without occupying a thread, until a running action finishes.
+     */
+    protected CompletionStage<Result> async(Http.Request request, Function<H, Result> action) {
+        H deputy = createDeputy(request);
+        return limiter().submit(() -> action.apply(deputy), getExecutor());
+    }
+
+    /**
+     * Executor on which {@link #async} runs its actions. Can be overridden.
+     * <p>
+     * This implementation returns the {@link DeputyExecutor#getDefault() default} executor, which uses
+     * virtual threads when available.
+     */
+    protected Executor getExecutor() {
+        return DeputyExecutor.getDefault();
+    }
+
+    /**
+     * Maximum number of actions of this controller that are run concurrently by {@link #async}, or 0
+     * when there is no limit. Only called once. Can be overridden.
+     * <p>
+     * This implementation returns the value for configuration key {@value #CONCURRENCY_KEY}, or 0
+     * when there is no such key.
+     */
+    protected int getConcurrencyLimit() {
+        return config.hasPath(CONCURRENCY_KEY) ? config.getInt(CONCURRENCY_KEY) : 0;
+    }
+
+    private Limiter limiter() {
+        Limiter result = limiter;
+        if (result == null) {
+            synchronized (this) {
+                result = limiter;
+                if (result == null) {
+                    int limit = getConcurrencyLimit();
+                    result = new Limiter(limit > 0 ? limit : Integer.MAX_VALUE);
+                    limiter = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts actions on an executor, with at most a given number of actions running at the same time. Actions
+     * that cannot be started yet are queued and started as soon as another action finishes.
+     */
+    private static final class Limiter {
+
+        private static final class Pending {
+            final Supplier<Result> action;
+            final Executor executor;
+            final CompletableFuture<Result> result = new CompletableFuture<>();
+
+            Pending(Supplier<Result> action, Executor executor) {
+                this.action = action;
+                this.executor = executor;
+            }
+        }
+
+        private final int limit;
+
+        private final Deque<Pending> waiting = new ArrayDeque<>();
+
+        private int running;
+
+        Limiter(int limit) {
+            this.limit = limit;
+        }
+
+        CompletableFuture<Result> submit(Supplier<Result> action, Executor executor) {
+            Pending pending = new Pending(action, executor);
+            synchronized (this) {
+                if (running >= limit) {
+                    waiting.add(pending);
+                    return pending.result;
+                }
+                running++;
+            }
+            if (!start(pending)) {
+                release();
+            }
+            return pending.result;
+        }
+
+        /**
+         * Starts the action on its executor. Returns false (and fails the action) when the executor
+         * rejects it.
+         */
+        private boolean start(Pending pending) {
+            try {
+                pending.executor.execute(() -> {
+                    try {
+                        pending.result.complete(pending.action.get());
+                    } catch (Throwable ex) {
+                        pending.result.completeExceptionally(ex);
+                    } finally {
+                        release();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException ex) {
+                pending.result.completeExceptionally(ex);
+                return false;
+            }
+        }
+
+        /**
+         * Starts the next waiting action in place of one that has finished
+         */
+        private void release() {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = waiting.poll();
+                    if (next == null) {
+                        running--;
+                        return;
+                    }
+                }
+                if (start(next)) {
+                    return;
+                }
+            }
+        }
+    }
+
 }
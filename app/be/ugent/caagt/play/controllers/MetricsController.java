@@ -0,0 +1,28 @@
+/*
+ * MetricsController.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.controllers;
+
+import be.ugent.caagt.play.metrics.MetricsProvider;
+import play.mvc.Http;
+import play.mvc.Result;
+
+/**
+ * Shows the current metrics as plain text. To be added to the routes of an application, preferably
+ * behind some form of access control, e.g.,
+ * <pre>
+ * GET  /admin/metrics     be.ugent.caagt.play.controllers.MetricsController.dump
+ * </pre>
+ */
+public class MetricsController extends play.mvc.Controller {
+
+    public Result dump() {
+        return ok(MetricsProvider.get().dump()).as(Http.MimeTypes.TEXT + "; charset=utf-8");
+    }
+}
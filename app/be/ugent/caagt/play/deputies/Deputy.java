@@ -9,7 +9,13 @@
 
 package be.ugent.caagt.play.deputies;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import be.ugent.caagt.play.controllers.BaseAction;
 import be.ugent.caagt.play.controllers.Controller;
+import be.ugent.caagt.play.metrics.MetricsProvider;
+import be.ugent.caagt.play.util.BodyCompressor;
+import be.ugent.caagt.play.util.ContentHash;
 import be.ugent.caagt.play.util.I18nData;
 import com.typesafe.config.Config;
 import play.data.Form;
@@ -21,10 +27,15 @@ import play.mvc.Http;
 import play.mvc.Result;
 import play.mvc.Results;
 import play.twirl.api.Content;
+import views.html.be.ugent.caagt.play.ext.foreach;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Handles an action in a thread safe way. Holds state for an action. Provides some
@@ -32,6 +43,10 @@ import java.util.Map;
  */
 public class Deputy {
 
+    private static final String RENDER_TIMER = "deputy.render";
+
+    private static final String TRANSFORM_TIMER = "deputy.transform";
+
     protected Http.Request request;
 
     protected MessagesApi messagesApi;
@@ -42,16 +57,24 @@ public class Deputy {
 
     private Controller<?> parent;
 
+    private Messages messages; // resolved at most once per request, see getMessages
+
+    private Locale locale;
+
     public Deputy() {
 
     }
 
     public void setRequest(Http.Request request) {
         this.request = request;
+        this.messages = null;
+        this.locale = null;
     }
 
     public void setMessagesApi(MessagesApi messagesApi) {
         this.messagesApi = messagesApi;
+        this.messages = null;
+        this.locale = null;
     }
 
     public void setConfig(Config config) {
@@ -82,8 +105,19 @@ public class Deputy {
         return messagesApi;
     }
 
+    /**
+     * Return the messages for the current request. The preferred language is resolved only once
+     * per request: the messages already stored in the request by {@link BaseAction} are used when available,
+     * otherwise they are obtained from the messages API and remembered for subsequent calls.
+     */
     public Messages getMessages() {
-        return messagesApi.preferred(request);
+        Messages result = messages;
+        if (result == null) {
+            result = request.attrs().getOptional(BaseAction.MESSAGES)
+                    .orElseGet(() -> messagesApi.preferred(request));
+            messages = result;
+        }
+        return result;
     }
 
     public Config getConfig() {
@@ -94,14 +128,28 @@ public class Deputy {
      * Return the preferred Locale for the current request
      */
     public Locale getLocale() {
-        return messagesApi.preferred(request).lang().toLocale();
+        Locale result = locale;
+        if (result == null) {
+            result = getMessages().lang().toLocale();
+            locale = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new fan out for running independent tasks of this deputy concurrently
+     *
+     * @see FanOut
+     */
+    protected FanOut fanOut() {
+        return new FanOut();
     }
 
     /**
      * Retrieves an internationalized message from the messages files
      */
     protected String i18n(String message, Object... args) {
-        return messagesApi.preferred(request).at(message, args);
+        return getMessages().at(message, args);
     }
 
     /**
@@ -133,36 +181,241 @@ public class Deputy {
             //.withHeader("Cache-Control", "no-store, max-age=0");
     }
 
+    /**
+     * Applies {@link #transform} and records the time it takes
+     */
+    private Result transformTimed(Result result) {
+        return transformTimed(result, this::transform);
+    }
+
+    /**
+     * Applies the given transformation and records the time it takes
+     */
+    private Result transformTimed(Result result, UnaryOperator<Result> transformation) {
+        long start = System.nanoTime();
+        Result transformed = transformation.apply(result);
+        MetricsProvider.get().record(TRANSFORM_TIMER, System.nanoTime() - start);
+        return transformed;
+    }
+
+    /**
+     * Renders a template and records the time this takes. Typical use:
+     * <pre>
+     * return ok(render(() -&gt; views.html.list.render(...)));
+     * </pre>
+     */
+    protected Content render(Supplier<Content> template) {
+        long start = System.nanoTime();
+        Content content = template.get();
+        MetricsProvider.get().record(RENDER_TIMER, System.nanoTime() - start);
+        return content;
+    }
+
+    /**
+     * Whether the results of {@link #ok(Content)}, {@link #ok(String)} and {@link #ok(byte[])} carry a (strong)
+     * ETag that is computed from their body. When the ETag matches the {@code If-None-Match} header of a GET or HEAD
+     * request, a 304 (Not Modified) response without body is returned instead. Can be overridden by subclasses.
+     * <p>
+     * This implementation returns false.
+     *
+     * @see #okIfModified
+     */
+    protected boolean isConditional() {
+        return false;
+    }
+
+    /**
+     * Compressor for the results of the {@code ok} and {@code okChunked} methods, or null when results
+     * should not be compressed. When not null, bodies are compressed with gzip or deflate when the client
+     * accepts this. Only the results of {@link #okIfModified} are cached in compressed form. Can be overridden
+     * by subclasses, typically to return {@link BodyCompressor#getDefault()}.
+     * <p>
+     * This implementation returns null.
+     */
+    protected BodyCompressor getCompressor() {
+        return null;
+    }
+
     protected Result ok(Content content) {
-        return transform(Results.ok(content));
+        if (isConditional() || getCompressor() != null) {
+            return okBody(content.body().getBytes(StandardCharsets.UTF_8), content.contentType() + "; charset=utf-8");
+        } else {
+            return transformTimed(Results.ok(content));
+        }
     }
 
     protected Result ok(String str) {
-        return transform(Results.ok(str));
+        if (isConditional() || getCompressor() != null) {
+            return okBody(str.getBytes(StandardCharsets.UTF_8), Http.MimeTypes.TEXT + "; charset=utf-8");
+        } else {
+            return transformTimed(Results.ok(str));
+        }
     }
 
     protected Result ok() {
-        return transform(Results.ok());
+        return transformTimed(Results.ok());
     }
 
     protected Result ok(byte[] bytes) {
-        return transform(Results.ok(bytes));
+        if (isConditional() || getCompressor() != null) {
+            return okBody(bytes, Http.MimeTypes.BINARY);
+        } else {
+            return transformTimed(Results.ok(bytes));
+        }
+    }
+
+    /**
+     * Returns the rendered content with an ETag derived from the given version, or a 304 (Not Modified) response
+     * when the request already has that version, in which case the content is not rendered at all.
+     * The version should change whenever the content changes, e.g., a time stamp or revision number of the
+     * underlying data combined with the language.
+     * <p>
+     * The content is considered reusable: when results are compressed, the compressed body is cached
+     * with the version as key.
+     */
+    protected Result okIfModified(String version, Supplier<Content> template) {
+        long hash = ContentHash.hash(version.getBytes(StandardCharsets.UTF_8));
+        // whether the body is compressed depends on its length, which is only known after rendering:
+        // the request may carry the ETag of the compressed or of the uncompressed body
+        String compressedEtag = ContentHash.etag(hash, acceptedEncoding(Integer.MAX_VALUE));
+        String plainEtag = ContentHash.etag(hash, null);
+        if (isNotModified(compressedEtag)) {
+            return notModified(compressedEtag);
+        } else if (isNotModified(plainEtag)) {
+            return notModified(plainEtag);
+        } else {
+            Content content = render(template);
+            byte[] body = content.body().getBytes(StandardCharsets.UTF_8);
+            String encoding = acceptedEncoding(body.length);
+            return okBody(body, content.contentType() + "; charset=utf-8", encoding, ContentHash.etag(hash, encoding), version);
+        }
+    }
+
+    /**
+     * Returns an OK result for the given body, with ETag and/or compression
+     */
+    private Result okBody(byte[] body, String contentType) {
+        String encoding = acceptedEncoding(body.length);
+        if (isConditional()) {
+            String etag = ContentHash.etag(ContentHash.hash(body), encoding);
+            if (isNotModified(etag)) {
+                return notModified(etag);
+            } else {
+                return okBody(body, contentType, encoding, etag, null);
+            }
+        } else {
+            return okBody(body, contentType, encoding, null, null);
+        }
+    }
+
+    /**
+     * Returns an OK result for the given body, compressed with the given encoding (if not null). The body is only
+     * cached in compressed form when a cache key is given.
+     */
+    private Result okBody(byte[] body, String contentType, String encoding, String etag, String cacheKey) {
+        Result result = encoding == null ? Results.ok(body) : getCompressor().compress(body, encoding, cacheKey);
+        result = result.as(contentType);
+        if (etag != null) {
+            result = result.withHeader(Http.HeaderNames.ETAG, etag);
+        }
+        return transformTimed(vary(result));
+    }
+
+    private Result notModified(String etag) {
+        return transformTimed(vary(Results.status(Http.Status.NOT_MODIFIED).withHeader(Http.HeaderNames.ETAG, etag)));
+    }
+
+    /**
+     * Adds a {@code Vary} header when results of this deputy depend on the accepted encoding
+     */
+    private Result vary(Result result) {
+        return getCompressor() == null ? result : result.withHeader(Http.HeaderNames.VARY, Http.HeaderNames.ACCEPT_ENCODING);
+    }
+
+    /**
+     * The encoding with which a body of the given length should be compressed, or null if it should not
+     * be compressed
+     */
+    private String acceptedEncoding(int length) {
+        BodyCompressor compressor = getCompressor();
+        if (compressor == null) {
+            return null;
+        } else {
+            return compressor.negotiate(request.headers().get(Http.HeaderNames.ACCEPT_ENCODING).orElse(null), length);
+        }
+    }
+
+    /**
+     * Whether the current request is a GET or HEAD request with an {@code If-None-Match} header that matches
+     * the given ETag
+     */
+    private boolean isNotModified(String etag) {
+        String method = request.method();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+        String header = request.headers().get(Http.HeaderNames.IF_NONE_MATCH).orElse(null);
+        if (header == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2); // If-None-Match uses weak comparison
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an HTML result whose body is sent in chunks, as they are produced by the given source.
+     * Typically used with one of the streaming variants of {@code foreach}. The length of the body is not known
+     * in advance, so it is always compressed when the client accepts this. Chunked results carry no ETag.
+     */
+    protected Result okChunked(Source<ByteString, ?> chunks) {
+        String encoding = acceptedEncoding(Integer.MAX_VALUE); // length unknown
+        Result result = encoding == null ? Results.ok().chunked(chunks) : getCompressor().compress(chunks, encoding);
+        return transformTimed(vary(result.as(Http.MimeTypes.HTML + "; charset=utf-8")));
+    }
+
+    /**
+     * Returns an HTML result that consists of the given header, followed by the given chunks,
+     * and then the given footer. Only the header and footer are kept in memory in their entirety.
+     */
+    protected Result okChunked(Content header, Source<ByteString, ?> chunks, Content footer) {
+        return okChunked(
+                Source.single(ByteString.fromString(header.body()))
+                        .concat(chunks)
+                        .concat(Source.single(ByteString.fromString(footer.body())))
+        );
+    }
+
+    /**
+     * Returns an HTML result that consists of the given header, the rendering of each row,
+     * optionally enclosed within the given tag, and then the given footer. Rows are rendered while
+     * the result is being sent.
+     */
+    protected <T> Result okChunked(Content header, Iterable<T> rows, String tag, Function<T, Content> row, Content footer) {
+        return okChunked(header, foreach.source(rows, tag, row), footer);
     }
 
     protected Result badRequest(Content content) {
-        return transform(Results.badRequest(content));
+        return transformTimed(Results.badRequest(content));
     }
 
     protected Result badRequest(String str) {
-        return transform(Results.badRequest(str));
+        return transformTimed(Results.badRequest(str));
     }
 
     protected Result badRequest() {
-        return transform(Results.badRequest());
+        return transformTimed(Results.badRequest());
     }
 
     protected Result redirect(Call call) {
-        return transformRedirect(Results.redirect(call));
+        return transformTimed(Results.redirect(call), this::transformRedirect);
     }
 
     /**
@@ -0,0 +1,51 @@
+/*
+ * DeputyExecutor.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.deputies;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the executor on which deputies are run asynchronously. Blocking I/O by deputies therefore
+ * does not tie up the threads of the Play dispatcher.
+ * <p>
+ * Uses a virtual thread per task when the JVM supports this (Java 21 or later) and otherwise falls back
+ * to a pool of daemon threads that grows as needed.
+ */
+public final class DeputyExecutor {
+
+    private static final ExecutorService DEFAULT = create();
+
+    private DeputyExecutor() {
+        // static methods only
+    }
+
+    private static ExecutorService create() {
+        try {
+            // not available at compile time (Java 17)
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "deputy-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * The executor that is shared by all controllers and deputies, unless they override it
+     */
+    public static ExecutorService getDefault() {
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * FanOut.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.deputies;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a number of named, independent tasks concurrently (e.g., the queries for the different parts of
+ * a dashboard) and waits for all of them to finish. Intended to be used within a single request:
+ * <pre>
+ * FanOut fanOut = fanOut()
+ *         .fork("list", () -&gt; dao.list(psf))
+ *         .fork("count", Duration.ofSeconds(2), () -&gt; dao.count())
+ *         .join();
+ * return ok(views.html.dashboard.render(fanOut.get("list"), fanOut.get("count"), ...));
+ * </pre>
+ * When a task fails or exceeds its timeout, all other tasks are cancelled (and interrupted) and
+ * {@link #join()} throws a {@link TaskFailedException}.
+ *
+ * @see Deputy#fanOut()
+ */
+public class FanOut {
+
+    /**
+     * Thrown by {@link #join()} when one of the tasks failed or timed out
+     */
+    public static class TaskFailedException extends RuntimeException {
+
+        private final String taskName;
+
+        public TaskFailedException(String taskName, String message, Throwable cause) {
+            super(message, cause);
+            this.taskName = taskName;
+        }
+
+        /**
+         * Name of the task that failed first
+         */
+        public String getTaskName() {
+            return taskName;
+        }
+    }
+
+    private static final class Task {
+        final String name;
+        final Future<Object> future;
+        final long deadline; // System.nanoTime, or Long.MAX_VALUE when there is no timeout
+
+        Task(String name, Future<Object> future, long deadline) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+        }
+    }
+
+    private final CompletionService<Object> completionService;
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    private final Map<Future<Object>, Task> tasksByFuture = new HashMap<>();
+
+    private final Map<String, Object> results = new HashMap<>();
+
+    private boolean joined;
+
+    public FanOut(Executor executor) {
+        this.completionService = new ExecutorCompletionService<>(executor);
+    }
+
+    /**
+     * Uses the {@link DeputyExecutor#getDefault() default} executor for deputies
+     */
+    public FanOut() {
+        this(DeputyExecutor.getDefault());
+    }
+
+    /**
+     * Starts a task without a timeout
+     */
+    public FanOut fork(String name, Callable<?> task) {
+        return fork(name, null, task);
+    }
+
+    /**
+     * Starts a task that must finish within the given time (measured from now). A null
+     * timeout means that there is no time limit.
+     */
+    public FanOut fork(String name, Duration timeout, Callable<?> task) {
+        if (joined) {
+            throw new IllegalStateException("Cannot fork a task after join");
+        } else if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate task name: " + name);
+        }
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        @SuppressWarnings("unchecked")
+        Callable<Object> callable = (Callable<Object>) task;
+        Task newTask = new Task(name, completionService.submit(callable), deadline);
+        tasks.put(name, newTask);
+        tasksByFuture.put(newTask.future, newTask);
+        return this;
+    }
+
+    /**
+     * Waits until all tasks have finished. When a task fails or does not finish in time, cancels
+     * all other tasks and throws an exception.
+     *
+     * @throws TaskFailedException when a task failed or timed out, or when the current thread was interrupted
+     */
+    public FanOut join() {
+        joined = true;
+        try {
+            while (results.size() < tasks.size()) {
+                Task first = null; // unfinished task with the nearest deadline
+                for (Task task : tasks.values()) {
+                    if (!results.containsKey(task.name) && (first == null || task.deadline < first.deadline)) {
+                        first = task;
+                    }
+                }
+                Future<Object> done;
+                if (first.deadline == Long.MAX_VALUE) {
+                    done = completionService.take();
+                } else {
+                    done = completionService.poll(first.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        cancelAll();
+                        throw new TaskFailedException(first.name, "Task '" + first.name + "' timed out", null);
+                    }
+                }
+                Task task = tasksByFuture.get(done);
+                try {
+                    results.put(task.name, done.get());
+                } catch (ExecutionException ex) {
+                    cancelAll();
+                    throw new TaskFailedException(task.name, "Task '" + task.name + "' failed", ex.getCause());
+                }
+            }
+            return this;
+        } catch (InterruptedException ex) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new TaskFailedException(null, "Interrupted while waiting for tasks", ex);
+        }
+    }
+
+    private void cancelAll() {
+        for (Task task : tasks.values()) {
+            task.future.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the result of the task with the given name. Only valid after {@link #join()}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        if (!results.containsKey(name)) {
+            throw new IllegalArgumentException("No result for task: " + name);
+        }
+        return (T) results.get(name);
+    }
+
+    /**
+     * The results of all tasks, by name. Only complete after {@link #join()}.
+     */
+    public Map<String, Object> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * InMemoryMetrics.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default metrics implementation that keeps a {@link Histogram} per timer and a sum per counter in memory,
+ * since the start of the application.
+ */
+public class InMemoryMetrics implements Metrics {
+
+    private final ConcurrentHashMap<String, Histogram> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String timer, long nanos) {
+        timers.computeIfAbsent(timer, k -> new Histogram()).record(nanos);
+    }
+
+    @Override
+    public void add(String counter, long delta) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+    }
+
+    public Histogram getTimer(String timer) {
+        return timers.get(timer);
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Lists all counters and then all timers, in alphabetical order. Times are in milliseconds.
+     */
+    @Override
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            builder.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+            Histogram histogram = entry.getValue();
+            builder.append(entry.getKey())
+                    .append(" count=").append(histogram.getCount())
+                    .append(String.format(Locale.ROOT, " mean=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f",
+                            histogram.getMean() / 1e6,
+                            histogram.getPercentile(50) / 1e6,
+                            histogram.getPercentile(90) / 1e6,
+                            histogram.getPercentile(99) / 1e6,
+                            histogram.getMax() / 1e6))
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+}
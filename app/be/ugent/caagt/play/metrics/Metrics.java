@@ -0,0 +1,35 @@
+/*
+ * Metrics.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.metrics;
+
+/**
+ * Service provider interface for recording timings and counters. The implementation that is used
+ * is found by {@link MetricsProvider}.
+ * <p>
+ * Implementations must be thread safe and should be cheap to call, as they are called several times
+ * for every request.
+ */
+public interface Metrics {
+
+    /**
+     * Records a duration for the timer with the given name
+     */
+    void record(String timer, long nanos);
+
+    /**
+     * Adds the given amount (possibly negative) to the counter with the given name
+     */
+    void add(String counter, long delta);
+
+    /**
+     * Returns a human readable text representation of all timers and counters
+     */
+    String dump();
+}
@@ -0,0 +1,31 @@
+/*
+ * MetricsProvider.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.metrics;
+
+import java.util.ServiceLoader;
+
+/**
+ * Provides the {@link Metrics} implementation used by this library. This is the first implementation
+ * registered with the {@link ServiceLoader} (in {@code META-INF/services/be.ugent.caagt.play.metrics.Metrics}),
+ * or an {@link InMemoryMetrics} when there is none.
+ */
+public final class MetricsProvider {
+
+    private static final Metrics INSTANCE =
+            ServiceLoader.load(Metrics.class).findFirst().orElseGet(InMemoryMetrics::new);
+
+    private MetricsProvider() {
+        // static methods only
+    }
+
+    public static Metrics get() {
+        return INSTANCE;
+    }
+}
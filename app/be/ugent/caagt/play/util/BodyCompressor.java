@@ -0,0 +1,227 @@
+/*
+ * BodyCompressor.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import akka.stream.javadsl.Compression;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with gzip or deflate, as negotiated with the client.
+ * <p>
+ * Bodies that the caller marks as reusable, by passing a cache key, are cached in compressed form, so content
+ * that is rendered identically many times is compressed only once. The cache is bounded by the total number of
+ * compressed bytes and evicts the least recently used bodies first. Large bodies that are not in the cache
+ * are compressed while they are being sent, and added to the cache afterwards when they are reusable.
+ *
+ * @see be.ugent.caagt.play.deputies.Deputy#getCompressor()
+ */
+public class BodyCompressor {
+
+    public static final String GZIP = "gzip";
+
+    public static final String DEFLATE = "deflate";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final BodyCompressor DEFAULT = new BodyCompressor(16 * 1024 * 1024, 1024, 256 * 1024);
+
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true); // access order
+
+    private long cachedBytes; // guarded by 'this'
+
+    private final long maxCachedBytes;
+
+    private final int minSize;
+
+    private final int streamSize;
+
+    /**
+     * Creates a new compressor
+     *
+     * @param maxCachedBytes maximum total size of the compressed bodies in the cache. A single body may take
+     *                       up at most one eighth of this.
+     * @param minSize bodies smaller than this number of bytes are not compressed
+     * @param streamSize bodies of at least this number of bytes are compressed while they are sent
+     */
+    public BodyCompressor(long maxCachedBytes, int minSize, int streamSize) {
+        this.maxCachedBytes = maxCachedBytes;
+        this.minSize = minSize;
+        this.streamSize = streamSize;
+    }
+
+    /**
+     * Compressor that is shared by all deputies that use the defaults: a cache of at most 16 MB
+     * (compressed), and only bodies of at least 1 KB are compressed, while they are sent from 256 KB onward.
+     */
+    public static BodyCompressor getDefault() {
+        return DEFAULT;
+    }
+
+    private synchronized byte[] cached(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void cache(String key, byte[] bytes) {
+        if (bytes.length > maxCachedBytes / 8) {
+            return;
+        }
+        byte[] old = cache.put(key, bytes);
+        if (old != null) {
+            cachedBytes -= old.length;
+        }
+        cachedBytes += bytes.length;
+        Iterator<byte[]> iterator = cache.values().iterator();
+        while (cachedBytes > maxCachedBytes && iterator.hasNext()) {
+            cachedBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the encoding to be used for a body of the given length, given the {@code Accept-Encoding} header
+     * of the request, or null when the body should not be compressed. Prefers gzip over deflate, unless
+     * the client gives deflate a higher quality value.
+     */
+    public String negotiate(String acceptEncoding, int length) {
+        if (acceptEncoding == null || length < minSize) {
+            return null;
+        }
+        double gzip = -1.0; // negative when not mentioned
+        double deflate = -1.0;
+        double any = 0.0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < fields.length; i++) {
+                String parameter = fields[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals(DEFLATE)) {
+                deflate = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip < 0.0) {
+            gzip = any;
+        }
+        if (deflate < 0.0) {
+            deflate = any;
+        }
+        if (gzip > 0.0 && gzip >= deflate) {
+            return GZIP;
+        } else if (deflate > 0.0) {
+            return DEFLATE;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns an OK result with the given body compressed with the given encoding (as returned by
+     * {@link #negotiate}). Content type must still be set by the caller.
+     */
+    public Result compress(byte[] body, String encoding) {
+        return compress(body, encoding, null);
+    }
+
+    /**
+     * Returns an OK result with the given body compressed with the given encoding (as returned by
+     * {@link #negotiate}). Content type must still be set by the caller.
+     * <p>
+     * When the cache key is not null, the body is reusable: its compressed form is cached and
+     * reused for identical bodies with the same cache key, e.g., the version of a page.
+     */
+    public Result compress(byte[] body, String encoding, String cacheKey) {
+        String key = cacheKey == null ? null
+                : cacheKey + ':' + Long.toHexString(ContentHash.hash(body)) + ':' + body.length + ':' + encoding;
+        byte[] compressed = key == null ? null : cached(key);
+        Result result;
+        if (compressed != null) {
+            result = Results.ok(compressed);
+        } else if (body.length < streamSize) {
+            compressed = compressBytes(body, encoding);
+            if (key != null) {
+                cache(key, compressed);
+            }
+            result = Results.ok(compressed);
+        } else {
+            List<ByteString> chunks = new ArrayList<>(body.length / CHUNK_SIZE + 1);
+            for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+                chunks.add(ByteString.fromArray(body, offset, Math.min(CHUNK_SIZE, body.length - offset)));
+            }
+            Source<ByteString, ?> source = Source.from(chunks).via(flow(encoding));
+            if (key != null) {
+                source = source.alsoTo(Sink.<ByteString, ByteString>fold(ByteString.emptyByteString(), ByteString::concat)
+                        .mapMaterializedValue(done -> done.thenAccept(bytes -> cache(key, bytes.toArray()))));
+            }
+            result = Results.ok().chunked(source);
+        }
+        return result.withHeader(Http.HeaderNames.CONTENT_ENCODING, encoding);
+    }
+
+    /**
+     * Returns a result whose chunked body is compressed with the given encoding while it is sent.
+     * Content type must still be set by the caller.
+     */
+    public Result compress(Source<ByteString, ?> chunks, String encoding) {
+        return Results.ok().chunked(chunks.via(flow(encoding)))
+                .withHeader(Http.HeaderNames.CONTENT_ENCODING, encoding);
+    }
+
+    private static Flow<ByteString, ByteString, ?> flow(String encoding) {
+        return GZIP.equals(encoding) ? Compression.gzip() : Compression.deflate();
+    }
+
+    private static byte[] compressBytes(byte[] body, String encoding) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (OutputStream out = GZIP.equals(encoding) ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // does not happen
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Removes all compressed bodies from the cache
+     */
+    public synchronized void clear() {
+        cache.clear();
+        cachedBytes = 0;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * BoundedCache.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread safe cache with a (soft) upper bound on the number of entries. Lookups never block.
+ * <p>
+ * When the capacity is exceeded, a number of arbitrary entries are evicted. Frequently used entries
+ * that are evicted in this way are simply recomputed on their next use, which makes this cache suitable
+ * for a large number of rarely used keys next to a smaller number of frequently used ones.
+ */
+public class BoundedCache<K, V> {
+
+    private final int capacity;
+
+    private final ConcurrentHashMap<K, V> map;
+
+    public BoundedCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the value for the given key, or null when not in the cache
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Returns the value for the given key. If not present, the value is computed using the given
+     * function and stored in the cache, unless it is null. The function is called without holding any
+     * locks and may therefore occasionally be called more than once for the same key.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        V value = map.get(key);
+        if (value == null) {
+            value = function.apply(key);
+            if (value != null) {
+                V previous = map.putIfAbsent(key, value);
+                if (previous != null) {
+                    return previous;
+                }
+                evictIfNeeded();
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        map.put(key, value);
+        evictIfNeeded();
+    }
+
+    public void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * Removes all entries whose key satisfies the given predicate
+     */
+    public void removeIf(Predicate<? super K> predicate) {
+        map.keySet().removeIf(predicate);
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    private void evictIfNeeded() {
+        if (map.size() > capacity) {
+            // evict about one eighth of the entries at once, so this does not happen on every insertion
+            int target = capacity - capacity / 8;
+            Iterator<K> iterator = map.keySet().iterator();
+            while (map.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+}
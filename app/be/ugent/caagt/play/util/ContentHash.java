@@ -0,0 +1,78 @@
+/*
+ * ContentHash.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Fast non-cryptographic 64 bit hash of response bodies (MurmurHash64A), used for ETags and cache keys.
+ */
+public final class ContentHash {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long M = 0xc6a4a7935bd1e995L;
+
+    private static final int R = 47;
+
+    private ContentHash() {
+        // static methods only
+    }
+
+    /**
+     * Returns the 64 bit hash of the given bytes
+     */
+    public static long hash(byte[] data) {
+        int length = data.length;
+        long h = 0x9747b28cL ^ (length * M);
+        int end = length & ~7;
+        for (int i = 0; i < end; i += 8) {
+            long k = (long) LONGS.get(data, i);
+            k *= M;
+            k ^= k >>> R;
+            k *= M;
+            h ^= k;
+            h *= M;
+        }
+        if (end < length) {
+            long k = 0;
+            for (int i = length - 1; i >= end; i--) {
+                k = (k << 8) | (data[i] & 0xffL);
+            }
+            h ^= k;
+            h *= M;
+        }
+        h ^= h >>> R;
+        h *= M;
+        h ^= h >>> R;
+        return h;
+    }
+
+    /**
+     * Returns a strong ETag (including quotes) for the given bytes
+     */
+    public static String etag(byte[] data) {
+        return etag(hash(data), null);
+    }
+
+    /**
+     * Returns a strong ETag (including quotes) for the given hash and content encoding. Different encodings of the
+     * same content have different ETags. The encoding may be null.
+     */
+    public static String etag(long hash, String encoding) {
+        if (encoding == null) {
+            return String.format("\"%016x\"", hash);
+        } else {
+            return String.format("\"%016x-%s\"", hash, encoding);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * CountCache.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+/**
+ * Caches row counts (e.g., the result of a COUNT query for a given table and filter) for a limited
+ * amount of time. Counts obtained from this cache may therefore be somewhat out of date and are best
+ * presented as an estimate, see {@link be.ugent.caagt.play.binders.Page#withEstimatedTotal(int)}.
+ */
+public class CountCache {
+
+    private static final class Entry {
+        final int count;
+        final long time;
+
+        Entry(int count, long time) {
+            this.count = count;
+            this.time = time;
+        }
+    }
+
+    private final long staleness;
+
+    private final BoundedCache<String, Entry> cache;
+
+    /**
+     * Creates a cache that holds counts for at most the given number of keys. Counts that are older
+     * than the given duration are recomputed.
+     */
+    public CountCache(Duration staleness, int capacity) {
+        this.staleness = staleness.toNanos();
+        this.cache = new BoundedCache<>(capacity);
+    }
+
+    /**
+     * Returns the count for the given key. Computes it using the given counter when the cache does not
+     * contain a count for that key, or when that count is too old.
+     */
+    public int count(String key, IntSupplier counter) {
+        long now = System.nanoTime();
+        Entry entry = cache.get(key);
+        if (entry == null || now - entry.time > staleness) {
+            entry = new Entry(counter.getAsInt(), now);
+            cache.put(key, entry);
+        }
+        return entry.count;
+    }
+
+    /**
+     * Removes the count for the given key
+     */
+    public void invalidate(String key) {
+        cache.remove(key);
+    }
+
+    /**
+     * Removes the counts for all keys that start with the given prefix
+     */
+    public void invalidatePrefix(String prefix) {
+        cache.removeIf(key -> key.startsWith(prefix));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * InMemoryPageCache.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import be.ugent.caagt.play.binders.PSF;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Page cache that keeps a bounded number of pages in memory for a limited amount of time.
+ * <p>
+ * Pages that are being prefetched are not loaded a second time when they are requested in the mean time.
+ */
+public class InMemoryPageCache implements PageCache {
+
+    private static final class Entry {
+        final Object value;
+        final long time;
+
+        Entry(Object value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+
+    private static final class Prefetch {
+        final CompletableFuture<Object> future;
+        final long generation;
+
+        Prefetch(CompletableFuture<Object> future, long generation) {
+            this.future = future;
+            this.generation = generation;
+        }
+    }
+
+    private final long timeToLive;
+
+    private final long maxWait;
+
+    private final BoundedCache<String, Entry> cache;
+
+    private final Executor executor;
+
+    private final ConcurrentHashMap<String, Prefetch> prefetching = new ConcurrentHashMap<>();
+
+    // incremented on every invalidation, so pages loaded before an invalidation are not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache for at most the given number of pages, which are kept for the given amount of time.
+     * Prefetching is done on the given executor. A request for a page that is being prefetched waits for at most
+     * the given time before it retrieves the page itself.
+     */
+    public InMemoryPageCache(int capacity, Duration timeToLive, Executor executor, Duration maxWait) {
+        this.cache = new BoundedCache<>(capacity);
+        this.timeToLive = timeToLive.toNanos();
+        this.executor = executor;
+        this.maxWait = maxWait.toNanos();
+    }
+
+    /**
+     * Same as {@link #InMemoryPageCache(int, Duration, Executor, Duration)} with a maximum wait of 10 seconds
+     */
+    public InMemoryPageCache(int capacity, Duration timeToLive, Executor executor) {
+        this(capacity, timeToLive, executor, Duration.ofSeconds(10));
+    }
+
+    private static String key(String table, PSF psf) {
+        return table + '?' + psf.getKey();
+    }
+
+    private Entry lookup(String key) {
+        Entry entry = cache.get(key);
+        if (entry != null && System.nanoTime() - entry.time > timeToLive) {
+            cache.remove(key);
+            return null;
+        } else {
+            return entry;
+        }
+    }
+
+    private Object load(String key, PSF psf, Function<PSF, ?> loader) {
+        long current = generation.get();
+        Object value = loader.apply(psf);
+        if (value != null && generation.get() == current) {
+            cache.put(key, new Entry(value, System.nanoTime()));
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String table, PSF psf, Function<PSF, T> loader) {
+        String key = key(table, psf);
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.increment();
+            return (T) entry.value;
+        }
+        Prefetch prefetch = prefetching.get(key);
+        if (prefetch != null && prefetch.generation == generation.get()) {
+            // prefetches that started before an invalidation are ignored, also when the invalidation
+            // happens while waiting
+            try {
+                T value = (T) prefetch.future.get(maxWait, TimeUnit.NANOSECONDS);
+                if (prefetch.generation == generation.get()) {
+                    hits.increment();
+                    return value;
+                }
+            } catch (ExecutionException | TimeoutException ex) {
+                // prefetching failed or takes too long, retrieve the page below
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        misses.increment();
+        return (T) load(key, psf, loader);
+    }
+
+    @Override
+    public <T> void prefetch(String table, PSF psf, Function<PSF, T> loader) {
+        String key = key(table, psf);
+        if (lookup(key) == null) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            Prefetch prefetch = new Prefetch(future, generation.get());
+            if (prefetching.putIfAbsent(key, prefetch) == null) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            future.complete(load(key, psf, loader));
+                        } catch (Throwable ex) {
+                            future.completeExceptionally(ex);
+                            throw ex;
+                        } finally {
+                            prefetching.remove(key, prefetch);
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    // e.g., executor was shut down, the page will be retrieved when requested
+                    prefetching.remove(key, prefetch);
+                    future.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(String table) {
+        generation.incrementAndGet();
+        String prefix = table + '?';
+        cache.removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+}
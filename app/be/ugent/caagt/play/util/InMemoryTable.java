@@ -0,0 +1,200 @@
+/*
+ * InMemoryTable.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import be.ugent.caagt.play.binders.PSF;
+import be.ugent.caagt.play.binders.Pager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Filters, sorts and pages a collection of rows that is held in memory, according to a {@link PSF}.
+ * The columns of the table are the constants of an enum (the same enum that is used with
+ * {@link Table#columns}) and are registered together with a function that extracts the corresponding
+ * value from a row.
+ * <p>
+ * Filter values are interpreted by {@link be.ugent.caagt.play.binders.TypedFilter}. When only the first
+ * rows of the sorted result are needed, only those rows are sorted. Rows that compare equal
+ * retain their original order, so that paging is consistent.
+ * <p>
+ * Paging uses page number and page size only, also for a {@link be.ugent.caagt.play.binders.CursorPager}.
+ * An in memory table can be shared between requests once all columns have been registered.
+ */
+public class InMemoryTable<T, E extends Enum<E>> {
+
+    private final Class<E> columnType;
+
+    private final EnumMap<E, Function<? super T, ?>> extractors;
+
+    private final EnumMap<E, Comparator<T>> ascending;
+
+    private final EnumMap<E, Comparator<T>> descending;
+
+    private int parallelThreshold = 10000;
+
+    public InMemoryTable(Class<E> columnType) {
+        this.columnType = columnType;
+        this.extractors = new EnumMap<>(columnType);
+        this.ascending = new EnumMap<>(columnType);
+        this.descending = new EnumMap<>(columnType);
+    }
+
+    /**
+     * Registers a column that can be used for sorting and filtering. Null values are sorted last
+     * (first when in descending order).
+     */
+    public <U extends Comparable<? super U>> InMemoryTable<T, E> column(E column, Function<? super T, ? extends U> extractor) {
+        extractors.put(column, extractor);
+        ascending.put(column, Comparator.comparing(extractor, Comparator.nullsLast(Comparator.<U>naturalOrder())));
+        descending.put(column, Comparator.comparing(extractor, Comparator.nullsFirst(Comparator.<U>reverseOrder())));
+        return this;
+    }
+
+    /**
+     * Registers a column that can be used for filtering only
+     */
+    public InMemoryTable<T, E> filterColumn(E column, Function<? super T, ?> extractor) {
+        extractors.put(column, extractor);
+        return this;
+    }
+
+    /**
+     * Collections with at least this number of rows are filtered in parallel. Default 10000.
+     */
+    public InMemoryTable<T, E> parallelThreshold(int threshold) {
+        this.parallelThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Result of {@link #page}
+     */
+    public static final class Page<T> {
+
+        private final List<T> rows;
+
+        private final int total;
+
+        private final boolean next;
+
+        private Page(List<T> rows, int total, boolean next) {
+            this.rows = rows;
+            this.total = total;
+            this.next = next;
+        }
+
+        /**
+         * The rows on the requested page, in sort order
+         */
+        public List<T> getRows() {
+            return rows;
+        }
+
+        /**
+         * The total number of rows that satisfy the filter
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean hasNext() {
+            return next;
+        }
+    }
+
+    /**
+     * Returns the page of rows that corresponds to the given PSF. An unknown sort column leaves
+     * the rows in their original order.
+     */
+    public Page<T> page(Collection<T> rows, PSF psf) {
+        List<T> filtered = filter(rows, psf);
+        Pager pager = psf.getPager();
+        int total = filtered.size();
+        int from = Math.min(pager.getOffset(), total);
+        int to = Math.min(from + pager.getPageSize(), total);
+        Comparator<T> comparator = comparator(psf);
+        List<T> result;
+        if (comparator == null || from == to) {
+            result = new ArrayList<>(filtered.subList(from, to));
+        } else if (to > total / 2) {
+            filtered.sort(comparator); // stable
+            result = new ArrayList<>(filtered.subList(from, to));
+        } else {
+            result = top(filtered, comparator, to).subList(from, to);
+        }
+        return new Page<>(result, total, to < total);
+    }
+
+    private List<T> filter(Collection<T> rows, PSF psf) {
+        if (psf.getFilter().isEmpty()) {
+            return new ArrayList<>(rows);
+        }
+        Predicate<T> predicate = psf.getTypedFilter(columnType).predicate(extractors);
+        if (rows.size() >= parallelThreshold) {
+            return rows.parallelStream().filter(predicate).collect(Collectors.toCollection(ArrayList::new));
+        } else {
+            List<T> result = new ArrayList<>();
+            for (T row : rows) {
+                if (predicate.test(row)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+    }
+
+    private Comparator<T> comparator(PSF psf) {
+        String sortColumn = psf.getSortColumn();
+        if (sortColumn == null) {
+            return null;
+        }
+        try {
+            E column = Enum.valueOf(columnType, sortColumn);
+            return psf.isAscending() ? ascending.get(column) : descending.get(column);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the first k rows of the list in sorted order. Ties are broken by position in the list.
+     */
+    private static <T> List<T> top(List<T> rows, Comparator<T> comparator, int k) {
+        // max heap of indices, the largest of the k smallest rows is on top
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, (i, j) -> {
+            int cmp = comparator.compare(rows.get(j), rows.get(i));
+            return cmp != 0 ? cmp : Integer.compare(j, i);
+        });
+        for (int i = 0; i < rows.size(); i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (comparator.compare(rows.get(i), rows.get(heap.peek())) < 0) {
+                // rows that compare equal to the top come later in the list and are not added
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(rows.get(heap.poll()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
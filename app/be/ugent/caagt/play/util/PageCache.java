@@ -0,0 +1,57 @@
+/*
+ * PageCache.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import be.ugent.caagt.play.binders.PSF;
+
+import java.util.function.Function;
+
+/**
+ * Caches pages of listings. A page is identified by the name of the table (or listing) and by the key
+ * of the {@link PSF} that describes it, see {@link PSF#getKey()}.
+ * <p>
+ * When count-free paging is used, the loader should return the rows as retrieved (including the extra row) and
+ * {@link be.ugent.caagt.play.binders.Pager#page} should be called on the result of {@link #get}.
+ */
+public interface PageCache {
+
+    /**
+     * Returns the page for the given table and PSF. Uses the given loader to retrieve the page when it is
+     * not in the cache.
+     */
+    <T> T get(String table, PSF psf, Function<PSF, T> loader);
+
+    /**
+     * Retrieves the page for the given table and PSF asynchronously and stores it in the cache, unless
+     * it is already present. Typically called with {@code psf.next()} when a page is served.
+     */
+    <T> void prefetch(String table, PSF psf, Function<PSF, T> loader);
+
+    /**
+     * Removes all pages of the given table from the cache
+     */
+    void invalidate(String table);
+
+    /**
+     * Removes all pages from the cache
+     */
+    void invalidateAll();
+
+    /**
+     * Number of calls to {@link #get} that were answered from the cache
+     */
+    long getHits();
+
+    /**
+     * Number of calls to {@link #get} that needed to retrieve the page
+     */
+    long getMisses();
+
+}
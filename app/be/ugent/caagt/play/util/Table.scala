@@ -28,6 +28,18 @@ abstract class Table(val psf: PSF) {
 
   def filter = psf.getFilter
 
+  /** Whether there is a next page, given the total number of rows. */
+  def hasNext(count: Int): Boolean = pager.hasNext(count)
+
+  /** Whether there is a previous page. */
+  def hasPrevious: Boolean = pager.hasPrevious
+
+  /** Index (starting from 1) of the first row on this page */
+  def start: Int = pager.getStart
+
+  /** Index of the last row on this page, given the total number of rows. */
+  def end(count: Int): Int = pager.getEnd(count)
+
   /**
    * Returns a route to a 'list'-method. This method is used
    * in default implementations of {@link # previous}, {@link # next} and
@@ -37,12 +49,33 @@ abstract class Table(val psf: PSF) {
    */
   protected def list(psf: PSF): Call = null
 
-  /** Route to be used when the 'previous' button is clicked. */
+  /**
+   * Route to be used when the 'previous' button is clicked. Throws an IllegalStateException for a cursor
+   * pager, use `previous(page)` instead.
+   */
   def previous: Call = list(psf.previous)
 
-  /** Route to be used when the 'next' button is clicked */
+  /**
+   * Route to be used when the 'next' button is clicked. Throws an IllegalStateException for a cursor
+   * pager, use `next(page)` instead.
+   */
   def next: Call = list(psf.next)
 
+  /** Whether there is a next page, when paging without a count. */
+  def hasNext(page: Page[_]): Boolean = page.hasNext
+
+  /** Whether there is a previous page, when paging without a count. */
+  def hasPrevious(page: Page[_]): Boolean = page.hasPrevious
+
+  /** Index of the last row on the given page, when paging without a count. */
+  def end(page: Page[_]): Int = page.getEnd
+
+  /** Route to be used when the 'previous' button is clicked, when paging without a count. */
+  def previous(page: Page[_]): Call = list(psf.previous(page))
+
+  /** Route to be used when the 'next' button is clicked, when paging without a count. */
+  def next(page: Page[_]): Call = list(psf.next(page))
+
   /**
    * Route to be used when the 'sort' button is clicked for the given field
    *
@@ -66,6 +99,16 @@ abstract class Table(val psf: PSF) {
    */
   def searchfield(name: String, placeHolder: String): HtmlFormat.Appendable
 
+  /**
+   * Key that identifies everything (apart from language, sort order, filter and arguments) on which the html generated by
+   * [[columnheader]] and [[searchfield]] depends, e.g., the route of the table. When not null, the results of
+   * [[columns]] and [[searchfields]] are cached, per table class, under this key. The size of the cache is set
+   * with [[Table.setHeaderCacheSize]].
+   *
+   * This implementation returns null, i.e., headers are not cached.
+   */
+  protected def headerCacheKey: String = null
+
   /*
    * Convenience methods
    * ===================
@@ -74,12 +117,57 @@ abstract class Table(val psf: PSF) {
   /**
    * Generate html for several standard column headers
    */
-  def columns(args: (Enum[_], String)*)(implicit messages: play.i18n.Messages) = views.html.be.ugent.caagt.play.tables._columns(this, args: _*)
+  def columns(args: (Enum[_], String)*)(implicit messages: play.i18n.Messages): Html =
+    cached("columns", args, messages)(views.html.be.ugent.caagt.play.tables._columns(this, args: _*))
 
 
   /**
    * Several input fields
    */
-  def searchfields(args: (Enum[_], String)*)(implicit messages: play.i18n.Messages) = views.html.be.ugent.caagt.play.tables._searchfields(this, args: _*)
+  def searchfields(args: (Enum[_], String)*)(implicit messages: play.i18n.Messages): Html =
+    cached("searchfields", args, messages)(views.html.be.ugent.caagt.play.tables._searchfields(this, args: _*))
+
+  private def cached(kind: String, args: Seq[(Enum[_], String)], messages: play.i18n.Messages)(render: => Html): Html = {
+    val cacheKey = headerCacheKey
+    if (cacheKey == null) {
+      render
+    } else {
+      val builder = new java.lang.StringBuilder(128)
+      builder.append(getClass.getName).append('|').append(cacheKey).append('|').append(kind)
+        .append('|').append(messages.lang.code)
+        // headers depend on the pager only through the sort routes, i.e., through pager.resort
+        .append('|').append(pager.resort.unbind("p"))
+        .append('|').append(sorter.unbind("s"))
+        .append('|').append(StringMap.unbind("f", filter))
+      for ((column, title) <- args) {
+        builder.append('|').append(if (column == null) "" else column.name).append('=').append(title)
+      }
+      Table.headerCache.computeIfAbsent(builder.toString, (_: String) => render)
+    }
+  }
+
+}
+
+object Table {
+
+  /**
+   * Default maximum number of cached column headers and search fields
+   */
+  val DefaultHeaderCacheSize = 1000
+
+  @volatile private var headerCache = new BoundedCache[String, Html](DefaultHeaderCacheSize)
+
+  /**
+   * Changes the maximum number of cached column headers and search fields (default [[DefaultHeaderCacheSize]]).
+   * Headers that are currently cached are discarded.
+   */
+  def setHeaderCacheSize(size: Int): Unit = {
+    headerCache = new BoundedCache[String, Html](size)
+  }
+
+  /**
+   * Removes all cached column headers and search fields, e.g., after messages have been reloaded
+   */
+  def clearHeaderCache(): Unit = headerCache.clear()
 
 }
@@ -9,12 +9,21 @@
 
 package views.html.be.ugent.caagt.play.ext;
 
+import com.google.common.collect.MapMaker;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import play.data.Form;
+import play.data.validation.ValidationError;
 
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper functions for forms.
@@ -36,36 +45,117 @@ public final class Forms {
         return new Form.Field(null, name, Collections.emptyList(), null, Collections.emptyList(), value);
     }
 
-    private static String extractKey(String str, String extendedKeyName) {
-        // TODO do this with Optional in Java 9 (and use flatMap(optional.toStream)?
+    /**
+     * Index of all indices that occur in the raw data keys of a form. Maps every prefix
+     * that is followed by {@code [index]} in one of the keys to the indices that follow it, and
+     * for every index, the suffixes that follow that index.
+     * For example, the key {@code a[1].b[2]} registers index {@code 1} with suffix {@code .b[2]} for
+     * prefix {@code a} and index {@code 2} with an empty suffix for prefix {@code a[1].b}.
+     */
+    private static final class KeyIndex {
 
-        if(str.startsWith(extendedKeyName)) {
-            int pos = str.indexOf(']');
-            if(pos < 0) {
-                return null;
-            } else {
-                return str.substring(extendedKeyName.length(), pos);
+        private final Map<String, Map<String, Set<String>>> indices = new HashMap<>();
+
+        KeyIndex(Collection<String> keys) {
+            for (String key : keys) {
+                int open = key.indexOf('[');
+                while (open >= 0) {
+                    int close = key.indexOf(']', open);
+                    if (close < 0) {
+                        break;
+                    }
+                    indices.computeIfAbsent(key.substring(0, open), k -> new LinkedHashMap<>())
+                            .computeIfAbsent(key.substring(open + 1, close), k -> new LinkedHashSet<>())
+                            .add(key.substring(close + 1));
+                    open = key.indexOf('[', close);
+                }
             }
-        } else {
-            return null;
+        }
+
+        Collection<String> get(String prefix) {
+            return indices.getOrDefault(prefix, Collections.emptyMap()).keySet();
+        }
+
+        Collection<String> suffixes(String prefix, String index) {
+            return indices.getOrDefault(prefix, Collections.emptyMap()).getOrDefault(index, Collections.emptySet());
         }
     }
 
+    /**
+     * Key indices of forms, computed once per form. Forms are immutable, so an index stays valid for the lifetime of its
+     * form. Forms are compared by identity and are only weakly referenced. Lookups do not take a global lock.
+     */
+    private static final ConcurrentMap<Form<?>, KeyIndex> KEY_INDICES = new MapMaker().weakKeys().makeMap();
+
+    private static KeyIndex keyIndex(Form<?> form) {
+        return KEY_INDICES.computeIfAbsent(form, f -> new KeyIndex(f.rawData().keySet()));
+    }
 
     private static <T> List<Integer> getIntKeysFromFormData(Form<T> form, String key) {
-        String extendedKeyName = key + "[";
-        return form.rawData().keySet().stream()
-            .map(k -> extractKey(k, extendedKeyName))
-            .filter(Objects::nonNull).map(Integer::parseInt)
-            .collect(Collectors.toList());
+        Collection<String> keys = keyIndex(form).get(key);
+        List<Integer> result = new ArrayList<>(keys.size());
+        for (String k : keys) {
+            result.add(Integer.parseInt(k));
+        }
+        return result;
     }
 
     private static <T> List<String> getStringKeysFromFormData(Form<T> form, String key) {
-        String extendedKeyName = key + "[";
-        return form.rawData().keySet().stream()
-            .map(k -> extractKey(k, extendedKeyName))
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+        return new ArrayList<>(keyIndex(form).get(key));
+    }
+
+    /**
+     * Getters of the readable properties of a class, looked up only once per class. Getters that cannot
+     * be made accessible are left out.
+     */
+    private static final ClassValue<Map<String, MethodHandle>> ACCESSORS = new ClassValue<Map<String, MethodHandle>>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            Map<String, MethodHandle> accessors = new HashMap<>();
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    Method getter = descriptor.getReadMethod();
+                    if (getter != null && getter.trySetAccessible()) {
+                        try {
+                            accessors.put(descriptor.getName(),
+                                    MethodHandles.lookup().unreflect(getter)
+                                            .asType(MethodType.methodType(Object.class, Object.class)));
+                        } catch (IllegalAccessException ex) {
+                            // not cached, read through a bean wrapper instead
+                        }
+                    }
+                }
+            } catch (IntrospectionException ex) {
+                // no accessors, all properties are read through a bean wrapper
+            }
+            return accessors;
+        }
+    };
+
+    /**
+     * Returns the value of a property of the data backing the form, or null if the form has no backing data
+     * or the property is not readable. Nested or indexed properties, and properties for which no getter could
+     * be cached, are read through a Spring bean wrapper.
+     */
+    private static Object propertyValue(Form<?> form, String name) {
+        Optional<?> value = form.value();
+        if (value.isEmpty()) {
+            return null;
+        }
+        Object data = value.get();
+        MethodHandle accessor = name.indexOf('.') >= 0 || name.indexOf('[') >= 0
+                ? null : ACCESSORS.get(data.getClass()).get(name);
+        if (accessor == null) {
+            BeanWrapper beanWrapper = new BeanWrapperImpl(data);
+            return beanWrapper.isReadableProperty(name) ? beanWrapper.getPropertyValue(name) : null;
+        }
+        try {
+            return (Object) accessor.invokeExact(data);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Could not read property " + name, ex);
+        }
     }
 
     public static <T> List<String> stringMapKeys(Form<T> form, String mapName) {
@@ -74,16 +164,10 @@ public final class Forms {
 
         if(keys.isEmpty()) {
             // if not, try to retrieve the information from the data backing the form
-            if(form.value().isPresent()) {
-                T data = form.value().get();
-                BeanWrapper beanWrapper = new BeanWrapperImpl(data);
-                if(beanWrapper.isReadableProperty(mapName)) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) beanWrapper.getPropertyValue(mapName);
-                    if(map != null) {
-                        keys = map.keySet();
-                    }
-                }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) propertyValue(form, mapName);
+            if(map != null) {
+                keys = map.keySet();
             }
         }
 
@@ -106,16 +190,10 @@ public final class Forms {
 
         if(keys.isEmpty()) {
             // if not, try to retrieve the information from the data backing the form
-            if(form.value().isPresent()) {
-                T data = form.value().get();
-                BeanWrapper beanWrapper = new BeanWrapperImpl(data);
-                if(beanWrapper.isReadableProperty(mapName)) {
-                    @SuppressWarnings("unchecked")
-                    Map<Integer, Object> map = (Map<Integer, Object>) beanWrapper.getPropertyValue(mapName);
-                    if(map != null) {
-                        keys = map.keySet();
-                    }
-                }
+            @SuppressWarnings("unchecked")
+            Map<Integer, Object> map = (Map<Integer, Object>) propertyValue(form, mapName);
+            if(map != null) {
+                keys = map.keySet();
             }
         }
 
@@ -131,9 +209,24 @@ public final class Forms {
      * Cannot be used for fields of the more complicated form  {@code key[...].something}
      */
     public static <T> List<Form.Field> intMapFields(Form<T> form, String mapName) {
-        return intMapKeys(form, mapName).stream()
-            .map(index -> form.field(mapName + "[" + index + "]"))
-            .collect(Collectors.toList());
+        return new FieldBuilder(form).fields(mapName, intMapKeys(form, mapName));
+    }
+
+    /**
+     * Retrieve all groups of fields from the given form that correspond to the map with the given name.
+     * Similar to {@link #intMapFields(Form, String)} but also supports fields of the form {@code key[...].something}.
+     */
+    public static <T> List<Group> intMapGroups(Form<T> form, String mapName) {
+        return new FieldBuilder(form).groups(mapName, intMapKeys(form, mapName));
+    }
+
+    /**
+     * Retrieve all groups of fields from the given form that correspond to the map with the given name.
+     * Similar to {@link #stringMapKeys(Form, String)} but returns groups of fields with names {@code key[...]}
+     * and {@code key[...].something}.
+     */
+    public static <T> List<Group> stringMapGroups(Form<T> form, String mapName) {
+        return new FieldBuilder(form).groups(mapName, stringMapKeys(form, mapName));
     }
 
     /**
@@ -146,19 +239,13 @@ public final class Forms {
 
         if(keys.isEmpty()) {
             // if not, try to retrieve the information from the data backing the form
-            if(form.value().isPresent()) {
-                T data = form.value().get();
-                BeanWrapper beanWrapper = new BeanWrapperImpl(data);
-                if(beanWrapper.isReadableProperty(arrayName)) {
-                    Object[] array = (Object[]) beanWrapper.getPropertyValue(arrayName);
-                    if(array != null) {
-                        List<Integer> indices = new ArrayList<>(array.length);
-                        for(int i = 0; i < array.length; i++) {
-                            indices.add(i);
-                        }
-                        return indices; // already sorted!
-                    }
+            Object[] array = (Object[]) propertyValue(form, arrayName);
+            if(array != null) {
+                List<Integer> indices = new ArrayList<>(array.length);
+                for(int i = 0; i < array.length; i++) {
+                    indices.add(i);
                 }
+                return indices; // already sorted!
             }
         }
 
@@ -174,9 +261,15 @@ public final class Forms {
      * Cannot be used for fields of the more complicated form  {@code key[...].something}
      */
     public static <T> List<Form.Field> arrayFields(Form<T> form, String arrayName) {
-        return arrayIndices(form, arrayName).stream()
-            .map(index -> form.field(arrayName + "[" + index + "]"))
-            .collect(Collectors.toList());
+        return new FieldBuilder(form).fields(arrayName, arrayIndices(form, arrayName));
+    }
+
+    /**
+     * Retrieve all groups of fields from the given form that correspond to the array with the given name.
+     * Similar to {@link #arrayFields(Form, String)} but also supports fields of the form {@code key[...].something}.
+     */
+    public static <T> List<Group> arrayGroups(Form<T> form, String arrayName) {
+        return new FieldBuilder(form).groups(arrayName, arrayIndices(form, arrayName));
     }
 
     /**
@@ -189,19 +282,13 @@ public final class Forms {
 
         if(keys.isEmpty()) {
             // if not, try to retrieve the information from the data backing the form
-            if(form.value().isPresent()) {
-                T data = form.value().get();
-                BeanWrapper beanWrapper = new BeanWrapperImpl(data);
-                if(beanWrapper.isReadableProperty(listName)) {
-                    List<?> list = (List<?>) beanWrapper.getPropertyValue(listName);
-                    if(list != null) {
-                        List<Integer> indices = new ArrayList<>(list.size());
-                        for(int i = 0; i < list.size(); i++) {
-                            indices.add(i);
-                        }
-                        return indices;
-                    }
+            List<?> list = (List<?>) propertyValue(form, listName);
+            if(list != null) {
+                List<Integer> indices = new ArrayList<>(list.size());
+                for(int i = 0; i < list.size(); i++) {
+                    indices.add(i);
                 }
+                return indices;
             }
         }
 
@@ -215,9 +302,137 @@ public final class Forms {
      * Cannot be used for fields of the more complicated form  {@code key[...].something}
      */
     public static <T> List<Form.Field> listFields(Form<T> form, String listName) {
-        return listIndices(form, listName).stream()
-            .map(index -> form.field(listName + "[" + index + "]"))
-            .collect(Collectors.toList());
+        return new FieldBuilder(form).fields(listName, listIndices(form, listName));
+    }
+
+    /**
+     * Retrieve all groups of fields from the given form that correspond to the list with the given name.
+     * Similar to {@link #listFields(Form, String)} but also supports fields of the form {@code key[...].something}.
+     */
+    public static <T> List<Group> listGroups(Form<T> form, String listName) {
+        return new FieldBuilder(form).groups(listName, listIndices(form, listName));
+    }
+
+    /**
+     * The fields that belong to a single index of a repeating group: the field {@code key[index]} itself, and
+     * the fields {@code key[index].something}, which can be retrieved by the name {@code something}.
+     */
+    public static final class Group {
+
+        private final Form<?> form;
+
+        private final String name;
+
+        private final String index;
+
+        private final Form.Field field;
+
+        private final Map<String, Form.Field> subfields;
+
+        private Group(Form<?> form, String name, String index, Form.Field field, Map<String, Form.Field> subfields) {
+            this.form = form;
+            this.name = name;
+            this.index = index;
+            this.field = field;
+            this.subfields = subfields;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        /**
+         * The field {@code key[index]}
+         */
+        public Form.Field getField() {
+            return field;
+        }
+
+        /**
+         * The field {@code key[index].name}. When the raw data of the form does not contain such a field,
+         * it is retrieved from the data backing the form.
+         */
+        public Form.Field get(String subfieldName) {
+            Form.Field subfield = subfields.get(subfieldName);
+            if (subfield == null) {
+                return form.field(name + "." + subfieldName);
+            } else {
+                return subfield;
+            }
+        }
+
+        /**
+         * All fields of the form {@code key[index].something} in the raw data of the form, by name
+         */
+        public Map<String, Form.Field> getSubfields() {
+            return subfields;
+        }
+    }
+
+    /**
+     * Creates the fields of repeating groups with a single pass over raw data and errors. Constraints and format
+     * are looked up only once for every field name that only differs in index.
+     */
+    private static final class FieldBuilder {
+
+        private final Form<?> form;
+
+        private final Map<String, String> data;
+
+        private final Map<String, List<ValidationError>> errors;
+
+        private final Map<String, Form.Field> prototypes;
+
+        FieldBuilder(Form<?> form) {
+            this.form = form;
+            this.data = form.rawData();
+            this.errors = new HashMap<>();
+            for (ValidationError error : form.errors()) {
+                errors.computeIfAbsent(error.key(), k -> new ArrayList<>()).add(error);
+            }
+            this.prototypes = new HashMap<>();
+        }
+
+        List<Form.Field> fields(String name, List<?> indices) {
+            List<Form.Field> result = new ArrayList<>(indices.size());
+            for (Object index : indices) {
+                result.add(field(name + "[" + index + "]", ""));
+            }
+            return result;
+        }
+
+        List<Group> groups(String name, List<?> indices) {
+            KeyIndex keyIndex = keyIndex(form);
+            List<Group> result = new ArrayList<>(indices.size());
+            for (Object index : indices) {
+                String groupName = name + "[" + index + "]";
+                Map<String, Form.Field> subfields = new LinkedHashMap<>();
+                for (String suffix : keyIndex.suffixes(name, index.toString())) {
+                    if (suffix.startsWith(".")) {
+                        subfields.put(suffix.substring(1), field(groupName + suffix, suffix));
+                    }
+                }
+                result.add(new Group(form, groupName, index.toString(), field(groupName, ""), subfields));
+            }
+            return result;
+        }
+
+        private Form.Field field(String name, String suffix) {
+            String value = data.get(name);
+            if (value == null) {
+                // value must be retrieved from the data backing the form
+                return form.field(name);
+            }
+            Form.Field prototype = prototypes.get(suffix);
+            if (prototype == null) {
+                prototype = form.field(name);
+                prototypes.put(suffix, prototype);
+                return prototype;
+            } else {
+                return new Form.Field(form, name, prototype.constraints(), prototype.format(),
+                        errors.getOrDefault(name, Collections.emptyList()), value);
+            }
+        }
     }
 
 }
@@ -0,0 +1,43 @@
+/*
+ * ParallelRendering.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package views.html.be.ugent.caagt.play.ext
+
+import java.util.concurrent.{ExecutorService, ForkJoinPool}
+
+/**
+  * Settings for the parallel variants of [[foreach]]: the pool on which elements are rendered, the minimum number of
+  * elements for which that pool is used, and the number of consecutive elements rendered by a single task.
+  *
+  * The parallel variants take these settings as an implicit parameter. Without an implicit value in scope, the
+  * [[ParallelRendering.default default]] is used. To change the settings for a template, pass an instance
+  * explicitly, or add it as an implicit parameter of the template.
+  */
+final case class ParallelRendering(executor: ExecutorService, threshold: Int = 1000, chunkSize: Int = 250)
+
+object ParallelRendering {
+
+  /**
+    * Pool that is used only for rendering, so that rendering tasks never wait for tasks of the application
+    * (or for the rendering thread itself) in a shared pool
+    */
+  private lazy val pool: ForkJoinPool = new ForkJoinPool(Runtime.getRuntime.availableProcessors,
+    (pool: ForkJoinPool) => {
+      val thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool)
+      thread.setName("foreach-par-" + thread.getPoolIndex)
+      thread.setDaemon(true)
+      thread
+    }, null, false)
+
+  /**
+    * A dedicated fork-join pool with one thread per processor, a threshold of 1000 elements and tasks of 250 elements
+    */
+  implicit lazy val default: ParallelRendering = ParallelRendering(pool)
+
+}
@@ -9,7 +9,12 @@
 
 package views.html.be.ugent.caagt.play.ext
 
-import play.twirl.api.Html
+import akka.NotUsed
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import play.twirl.api.{Content, Html}
+
+import java.util.concurrent.{Callable, CancellationException, ExecutionException, ForkJoinPool, Future}
 
 import scala.jdk.CollectionConverters._
 
@@ -31,15 +36,12 @@ object foreach {
     * Iterate over the given Java iterable, optionally enclosing every iteration result within tags
     */
   def apply[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: T => Html): Html = {
-    val scalaIterable = iterable.asScala
-    new Html((
-      if (tag == null) {
-        scalaIterable.map(block)
-      } else {
-        val st: String = makeString(args)
-        scalaIterable.flatMap { el: T => List[Html](Html(s"<$tag $st>"), block(el), Html(s"</$tag>")) }
-      }
-      ).to(Seq))
+    val (open, close) = tags(tag, args)
+    val builder = newBuilder(iterable)
+    iterable.forEach { el =>
+      builder.append(open).append(block(el).body).append(close)
+    }
+    Html(builder.toString)
   }
 
   /**
@@ -85,15 +87,14 @@ object foreach {
     * Same as apply, but provides an index during iteration
     */
   def withIndex[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: (T, Int) => Html): Html = {
-    val scalaIterable = iterable.asScala.zipWithIndex
-    new Html((
-      if (tag == null) {
-        scalaIterable.map(t => block(t._1, t._2))
-      } else {
-        val st: String = makeString(args)
-        scalaIterable.flatMap { t: (T, Int) => List[Html](Html(s"<$tag $st>"), block(t._1, t._2), Html(s"</$tag>")) }
-      }
-      ).to(Seq))
+    val (open, close) = tags(tag, args)
+    val builder = newBuilder(iterable)
+    var index = 0
+    iterable.forEach { el =>
+      builder.append(open).append(block(el, index).body).append(close)
+      index += 1
+    }
+    Html(builder.toString)
   }
 
   /**
@@ -114,15 +115,166 @@ object foreach {
     }
   }
 
+  /**
+    * Same as apply, but renders the elements in parallel when the iterable is large, i.e., contains at least
+    * as many elements as the threshold of the given [[ParallelRendering settings]]. The results are joined in the
+    * original order. The block must not depend on the order in which it is called or on the thread that calls it.
+    */
+  def par[T](iterable: java.lang.Iterable[T])(block: T => Html)(implicit settings: ParallelRendering): Html = {
+    par(iterable, null)(block)
+  }
+
+  /**
+    * Same as apply, but renders the elements in parallel when the iterable is large, optionally enclosing every
+    * iteration result within tags
+    */
+  def par[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: T => Html)(implicit settings: ParallelRendering): Html = {
+    parWithIndex(iterable, tag, args: _*)((el, _) => block(el))
+  }
+
+  /**
+    * Same as withIndex, but renders the elements in parallel when the iterable is large
+    */
+  def parWithIndex[T](iterable: java.lang.Iterable[T])(block: (T, Int) => Html)(implicit settings: ParallelRendering): Html = {
+    parWithIndex(iterable, null)(block)
+  }
+
+  /**
+    * Same as withIndex, but renders the elements in parallel when the iterable is large, optionally enclosing
+    * every iteration result within tags. When rendering fails or the current thread is interrupted, the remaining
+    * tasks are cancelled.
+    */
+  def parWithIndex[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: (T, Int) => Html)(implicit settings: ParallelRendering): Html = {
+    iterable match {
+      case collection: java.util.Collection[T] if collection.size >= settings.threshold =>
+        val (open, close) = tags(tag, args)
+        val elements = collection.toArray
+        val taskSize = settings.chunkSize max 1
+        val futures = new java.util.ArrayList[Future[String]]((elements.length + taskSize - 1) / taskSize)
+        val builder = newBuilder(collection)
+        try {
+          for (start <- 0 until elements.length by taskSize) {
+            futures.add(settings.executor.submit(new Callable[String] {
+              override def call(): String = {
+                val builder = new java.lang.StringBuilder()
+                for (index <- start until (start + taskSize min elements.length)) {
+                  builder.append(open).append(block(elements(index).asInstanceOf[T], index).body).append(close)
+                }
+                builder.toString
+              }
+            }))
+          }
+          futures.forEach(future => builder.append(await(future)))
+        } catch {
+          case ex: ExecutionException =>
+            throw ex.getCause
+          case ex: InterruptedException =>
+            Thread.currentThread.interrupt()
+            throw ex
+        } finally {
+          futures.forEach(_.cancel(true)) // no effect on tasks that have completed
+        }
+        Html(builder.toString)
+      case _ =>
+        withIndex(iterable, tag, args: _*)(block)
+    }
+  }
+
+  /**
+    * Waits for the result of the given future. When the current thread belongs to a fork-join pool, that pool may
+    * start an extra thread while waiting, so that waiting does not starve the pool.
+    */
+  private def await[A](future: Future[A]): A = {
+    ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker {
+      override def block(): Boolean = {
+        try {
+          future.get()
+        } catch {
+          case _: ExecutionException | _: CancellationException => // reported below
+        }
+        true
+      }
+
+      override def isReleasable: Boolean = future.isDone
+    })
+    future.get()
+  }
+
+  /**
+    * Number of elements rendered into a single chunk by the streaming variants
+    */
+  val chunkSize = 100
+
+  /**
+    * Same as apply, but produces the result as a stream of chunks. Elements are only rendered when the
+    * stream is consumed, so the full result never needs to be kept in memory.
+    */
+  def stream[T](iterable: java.lang.Iterable[T])(block: T => Html): Source[ByteString, NotUsed] = {
+    stream(iterable, null)(block)
+  }
+
+  /**
+    * Same as apply, but produces the result as a stream of chunks, optionally enclosing every iteration result
+    * within tags
+    */
+  def stream[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: T => Html): Source[ByteString, NotUsed] = {
+    val (open, close) = tags(tag, args)
+    Source.fromIterator(() => iterable.iterator().asScala.grouped(chunkSize)).map { elements =>
+      val builder = new java.lang.StringBuilder()
+      for (el <- elements) {
+        builder.append(open).append(block(el).body).append(close)
+      }
+      ByteString(builder.toString)
+    }
+  }
+
+  /**
+    * Variant of stream for use from Java
+    */
+  def source[T](iterable: java.lang.Iterable[T], tag: String, block: java.util.function.Function[T, _ <: Content]): akka.stream.javadsl.Source[ByteString, NotUsed] = {
+    stream(iterable, tag)(el => Html(block(el).body)).asJava
+  }
+
+  /**
+    * Same as apply, but writes the result to the given writer as the iterable is consumed
+    */
+  def writeTo[T](writer: java.io.Writer, iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: T => Html): Unit = {
+    val (open, close) = tags(tag, args)
+    iterable.forEach { el =>
+      writer.write(open)
+      writer.write(block(el).body)
+      writer.write(close)
+    }
+  }
+
+  private def tags(tag: String, args: Seq[(Symbol, Any)]): (String, String) = {
+    if (tag == null) {
+      ("", "")
+    } else {
+      (s"<$tag ${makeString(args)}>", s"</$tag>")
+    }
+  }
+
+  /**
+    * Estimated number of characters of output per element, used to presize the result
+    */
+  private val estimatedElementSize = 64
+
+  private def newBuilder(iterable: java.lang.Iterable[_]): java.lang.StringBuilder = iterable match {
+    case collection: java.util.Collection[_] =>
+      new java.lang.StringBuilder(math.min(collection.size.toLong * estimatedElementSize, 1 << 24).toInt max 16)
+    case _ =>
+      new java.lang.StringBuilder()
+  }
+
   private def inner(args: Seq[(Symbol, Any)]) = args.filter(arg => !arg._1.name.startsWith("_"))
 
   private def makeString(args: Seq[(Symbol, Any)]): String = {
-    inner(args)
-    var st = ""
-    for ((s, t) <- args) {
-      st += s.name + "=\"" + t.toString + "\" "
+    val builder = new java.lang.StringBuilder()
+    for ((s, t) <- inner(args)) {
+      builder.append(s.name).append("=\"").append(t.toString).append("\" ")
     }
-    st
+    builder.toString
   }
 
   /**
@@ -138,6 +290,12 @@ object foreach {
     def withIndex[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html): Html = foreach.withIndex(iterable, "tr", args: _*)(block)
 
     def withIndexOrElse[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html)(elseBlock: => Html): Html = foreach.withIndexOrElse(iterable, "tr", args: _*)(block)(elseBlock)
+
+    def stream[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: T => Html): Source[ByteString, NotUsed] = foreach.stream(iterable, "tr", args: _*)(block)
+
+    def par[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: T => Html)(implicit settings: ParallelRendering): Html = foreach.par(iterable, "tr", args: _*)(block)
+
+    def parWithIndex[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html)(implicit settings: ParallelRendering): Html = foreach.parWithIndex(iterable, "tr", args: _*)(block)
   }
 
   /**
@@ -153,6 +311,12 @@ object foreach {
     def withIndex[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html): Html = foreach.withIndex(iterable, "li", args: _*)(block)
 
     def withIndexOrElse[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html)(elseBlock: => Html): Html = foreach.withIndexOrElse(iterable, "li", args: _*)(block)(elseBlock)
+
+    def stream[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: T => Html): Source[ByteString, NotUsed] = foreach.stream(iterable, "li", args: _*)(block)
+
+    def par[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: T => Html)(implicit settings: ParallelRendering): Html = foreach.par(iterable, "li", args: _*)(block)
+
+    def parWithIndex[T](iterable: java.lang.Iterable[T], args: (Symbol, Any)*)(block: (T, Int) => Html)(implicit settings: ParallelRendering): Html = foreach.parWithIndex(iterable, "li", args: _*)(block)
   }
 
 
@@ -0,0 +1,17 @@
+/*
+ * Column.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.benchmarks;
+
+/**
+ * Columns of the table rendered by {@link TableBenchmark}
+ */
+public enum Column {
+    NAME, EMAIL, ROLE, CREATED
+}
@@ -0,0 +1,102 @@
+/*
+ * FormsBenchmark.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.benchmarks;
+
+import com.typesafe.config.ConfigFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import play.data.Form;
+import views.html.be.ugent.caagt.play.ext.Forms;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link Forms} reads the data backing a form when the form data itself contains no matching
+ * fields. A top level property is read through a getter that is cached per class, a nested property
+ * ({@code self.labels}) through a new Spring bean wrapper, as was done for every property before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormsBenchmark {
+
+    public static class Data {
+
+        private final Map<String, String> labels = new HashMap<>();
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public Data getSelf() {
+            return this;
+        }
+
+        public String getName() {
+            return "name";
+        }
+
+        public int getCount() {
+            return labels.size();
+        }
+    }
+
+    private Data data;
+
+    private Form<Data> form;
+
+    private MethodHandle getter;
+
+    @Setup
+    public void setup() {
+        data = new Data();
+        data.getLabels().put("en", "English");
+        data.getLabels().put("nl", "Dutch");
+        data.getLabels().put("fr", "French");
+        form = new Form<>(null, Data.class, Collections.emptyMap(), Collections.emptyList(), Optional.of(data),
+                null, null, null, ConfigFactory.parseString("play.forms.binding.directFieldAccess = false"));
+        try {
+            getter = MethodHandles.lookup().unreflect(Data.class.getMethod("getLabels"))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Map keys read through the cached getter */
+    @Benchmark
+    public List<String> cachedGetter() {
+        return Forms.stringMapKeys(form, "labels");
+    }
+
+    /** Map keys read through a bean wrapper */
+    @Benchmark
+    public List<String> beanWrapper() {
+        return Forms.stringMapKeys(form, "self.labels");
+    }
+
+    /** The property read alone, through a method handle as Forms does for a cached getter */
+    @Benchmark
+    public Object cachedGetterReadOnly() throws Throwable {
+        return (Object) getter.invokeExact((Object) data);
+    }
+
+    /** The property read alone, as it was done before getters were cached */
+    @Benchmark
+    public Object beanWrapperReadOnly() {
+        BeanWrapper beanWrapper = new BeanWrapperImpl(data);
+        return beanWrapper.isReadableProperty("labels") ? beanWrapper.getPropertyValue("labels") : null;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * ForeachBenchmark.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import org.openjdk.jmh.annotations._
+import play.twirl.api.{Html, HtmlFormat}
+import views.html.be.ugent.caagt.play.ext.foreach
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * Compares `foreach.apply` and `foreach.withIndex` with the implementation they replaced, which built a
+ * sequence of small `Html` fragments (see [[ForeachBenchmark.Fragments]]). Every element renders a table row
+ * of about 60 characters, enclosed in `tr` tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class ForeachBenchmark {
+
+  import ForeachBenchmark._
+
+  @Param(Array("1000", "10000", "100000"))
+  var size: Int = _
+
+  private var rows: java.util.List[Row] = _
+
+  @Setup
+  def setup(): Unit = {
+    rows = new java.util.ArrayList[Row](size)
+    for (i <- 0 until size) {
+      rows.add(Row(i, s"Name $i", s"user$i@example.com"))
+    }
+  }
+
+  @Benchmark
+  def apply(): String = foreach(rows, "tr", Symbol("class") -> "row")(render).body
+
+  @Benchmark
+  def applyFragments(): String = Fragments(rows, "tr", Symbol("class") -> "row")(render).body
+
+  @Benchmark
+  def withIndex(): String = foreach.withIndex(rows, "tr", Symbol("class") -> "row")(renderIndexed).body
+
+  @Benchmark
+  def withIndexFragments(): String = Fragments.withIndex(rows, "tr", Symbol("class") -> "row")(renderIndexed).body
+}
+
+object ForeachBenchmark {
+
+  final case class Row(id: Int, name: String, email: String)
+
+  private def render(row: Row): Html =
+    Html(s"<td>${row.id}</td><td>${HtmlFormat.escape(row.name)}</td><td>${HtmlFormat.escape(row.email)}</td>")
+
+  private def renderIndexed(row: Row, index: Int): Html =
+    Html(s"<td>$index</td><td>${HtmlFormat.escape(row.name)}</td><td>${HtmlFormat.escape(row.email)}</td>")
+
+  /**
+   * The earlier implementation of `foreach.apply` and `foreach.withIndex`, kept as a baseline.
+   */
+  object Fragments {
+
+    def apply[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: T => Html): Html = {
+      val scalaIterable = iterable.asScala
+      new Html((
+        if (tag == null) {
+          scalaIterable.map(block)
+        } else {
+          val st: String = makeString(args)
+          scalaIterable.flatMap { el: T => List[Html](Html(s"<$tag $st>"), block(el), Html(s"</$tag>")) }
+        }
+        ).to(Seq))
+    }
+
+    def withIndex[T](iterable: java.lang.Iterable[T], tag: String, args: (Symbol, Any)*)(block: (T, Int) => Html): Html = {
+      val scalaIterable = iterable.asScala.zipWithIndex
+      new Html((
+        if (tag == null) {
+          scalaIterable.map(t => block(t._1, t._2))
+        } else {
+          val st: String = makeString(args)
+          scalaIterable.flatMap { t: (T, Int) => List[Html](Html(s"<$tag $st>"), block(t._1, t._2), Html(s"</$tag>")) }
+        }
+        ).to(Seq))
+    }
+
+    private def makeString(args: Seq[(Symbol, Any)]): String = {
+      var st = ""
+      for ((s, t) <- args) {
+        st += s.name + "=\"" + t.toString + "\" "
+      }
+      st
+    }
+  }
+}
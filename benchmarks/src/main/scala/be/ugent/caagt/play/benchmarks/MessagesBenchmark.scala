@@ -0,0 +1,69 @@
+/*
+ * MessagesBenchmark.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import be.ugent.caagt.play.CompiledMessagesApi
+import org.openjdk.jmh.annotations._
+import play.api.http.HttpConfiguration
+import play.api.i18n.{DefaultLangs, DefaultMessagesApi, Lang, MessagesApi}
+
+/**
+ * Compares [[CompiledMessagesApi]] with Play's `DefaultMessagesApi` on the messages of a typical page:
+ * a mix of constant messages, messages with arguments and messages that fall back to the default language.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class MessagesBenchmark {
+
+  @Param(Array("default", "compiled"))
+  var api: String = _
+
+  private var messagesApi: MessagesApi = _
+
+  private val lang = Lang("nl")
+
+  private val keys = (0 until 100).map(i => s"key.$i").toArray
+
+  @Setup
+  def setup(): Unit = {
+    val default = keys.indices.map { i =>
+      keys(i) -> (i % 4 match {
+        case 0 => s"Constant message $i"
+        case 1 => s"Message $i for {0}"
+        case 2 => s"{1,number,integer} items for {0} ($i)"
+        case _ => s"It''s message $i"
+      })
+    }.toMap
+    val nl = default.filter(_._1.hashCode % 3 != 0).map { case (k, v) => k -> ("NL " + v) }
+    val messages = Map("default" -> default, "nl" -> nl)
+    val langs = new DefaultLangs(Seq(Lang("en"), lang))
+    messagesApi = api match {
+      case "default" => new DefaultMessagesApi(messages, langs)
+      case "compiled" => new CompiledMessagesApi(messages, langs, "PLAY_LANG", cookieSecure = false,
+        cookieHttpOnly = true, None, HttpConfiguration(), None, cacheSize = 1000)
+    }
+  }
+
+  /** Formats all 100 messages once. */
+  @Benchmark
+  @OperationsPerInvocation(100)
+  def page(): Int = {
+    var length = 0
+    var i = 0
+    while (i < keys.length) {
+      length += messagesApi(keys(i), "Alice", i)(lang).length
+      i += 1
+    }
+    length
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * TableBenchmark.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import be.ugent.caagt.play.binders.PSF
+import be.ugent.caagt.play.util.Table
+import org.openjdk.jmh.annotations._
+import play.api.i18n.{DefaultLangs, DefaultMessagesApi, Lang}
+import play.api.mvc.Call
+import play.twirl.api.{Html, HtmlFormat}
+import views.html.be.ugent.caagt.play.ext.foreach
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * Renders a complete page of a [[Table]]: the PSF is bound from the query string, as for every request,
+ * followed by the sortable column headers, the search fields, 50 rows and the paging links. The page is rendered
+ * with and without caching of the column headers and search fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class TableBenchmark {
+
+  import TableBenchmark._
+
+  @Param(Array("false", "true"))
+  var headerCache: Boolean = _
+
+  private val query: java.util.Map[String, Array[String]] = Map(
+    "psf.p.nr" -> Array("3"),
+    "psf.p.size" -> Array("50"),
+    "psf.s" -> Array("+NAME"),
+    "psf.f.ROLE" -> Array("admin"),
+    "psf.f.NAME" -> Array("jan")
+  ).asJava
+
+  private val rows: java.util.List[Row] =
+    (0 until 50).map(i => Row(s"Jan $i", s"jan$i@example.com", "admin", s"2024-01-${i % 28 + 1}")).asJava
+
+  private implicit val messages: play.i18n.Messages = {
+    val api = new DefaultMessagesApi(Map("default" -> Map(
+      "name" -> "Name", "email" -> "Email address", "role" -> "Role", "created" -> "Created on",
+      "search" -> "Search..."
+    )), new DefaultLangs(Seq(Lang("en"))))
+    new play.i18n.MessagesApi(api).preferred(java.util.List.of(play.i18n.Lang.forCode("en")))
+  }
+
+  @Setup
+  def setup(): Unit = {
+    Table.clearHeaderCache()
+  }
+
+  @Benchmark
+  def render(): String = {
+    val psf = new PSF().bind("psf", query).get
+    val table = new UserTable(psf, headerCache)
+    val columns = Seq[(Enum[_], String)](Column.NAME -> "name", Column.EMAIL -> "email", Column.ROLE -> "role",
+      Column.CREATED -> "created", (null, null))
+    val searchfields = Seq[(Enum[_], String)](Column.NAME -> "search", Column.EMAIL -> "search",
+      Column.ROLE -> "search", (null, null), (null, null))
+    val builder = new java.lang.StringBuilder(16384)
+    builder.append("<form action=\"").append(table.action.url).append("\"><table><thead><tr>")
+      .append(table.columns(columns: _*).body).append("</tr><tr>")
+      .append(table.searchfields(searchfields: _*).body).append("</tr></thead><tbody>")
+      .append(foreach(rows, "tr") { row =>
+        Html(s"<td>${HtmlFormat.escape(row.name)}</td><td>${HtmlFormat.escape(row.email)}</td>" +
+          s"<td>${row.role}</td><td>${row.created}</td><td></td>")
+      }.body)
+      .append("</tbody></table>")
+    if (table.hasPrevious) {
+      builder.append("<a href=\"").append(table.previous.url).append("\">&lt;</a>")
+    }
+    if (table.hasNext(1000)) {
+      builder.append("<a href=\"").append(table.next.url).append("\">&gt;</a>")
+    }
+    builder.append("</form>").toString
+  }
+}
+
+object TableBenchmark {
+
+  final case class Row(name: String, email: String, role: String, created: String)
+
+  private class UserTable(psf: PSF, headerCache: Boolean) extends Table(psf) {
+
+    override protected def list(psf: PSF): Call = Call("GET", "/users?" + psf.unbind("psf"))
+
+    override def resize: Call = Call("GET", "/users/resize?" + psf.unbind("psf"))
+
+    override def action: Call = Call("POST", "/users/search?" + psf.unbind("psf"))
+
+    override def columnheader(field: String)(html: Html): HtmlFormat.Appendable =
+      Html(s"""<th class="${sorter.getColumnClass(field)}"><a href="${sort(field).url}">${html.body}</a></th>""")
+
+    override def searchfield(name: String, placeHolder: String): HtmlFormat.Appendable =
+      Html(s"""<td><input name="f.$name" value="${HtmlFormat.escape(psf.getFilterValue(name).orElse(""))}" """ +
+        s"""placeholder="${HtmlFormat.escape(placeHolder)}"/></td>""")
+
+    override protected def headerCacheKey: String = if (headerCache) "/users" else null
+  }
+}
@@ -0,0 +1,4 @@
+package be.ugent.caagt.play.benchmarks.jmh_generated;
+public class ForeachBenchmark_jmhType extends ForeachBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package be.ugent.caagt.play.benchmarks.jmh_generated;
+public class FormsBenchmark_jmhType extends FormsBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package be.ugent.caagt.play.benchmarks.jmh_generated;
+public class MessagesBenchmark_jmhType extends MessagesBenchmark_jmhType_B3 {
+}
+
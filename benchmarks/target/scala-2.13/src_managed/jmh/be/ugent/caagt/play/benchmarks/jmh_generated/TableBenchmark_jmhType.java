@@ -0,0 +1,4 @@
+package be.ugent.caagt.play.benchmarks.jmh_generated;
+public class TableBenchmark_jmhType extends TableBenchmark_jmhType_B3 {
+}
+
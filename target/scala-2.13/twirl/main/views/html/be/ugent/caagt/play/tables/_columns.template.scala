@@ -0,0 +1,66 @@
+
+package views.html.be.ugent.caagt.play.tables
+
+import _root_.play.twirl.api.TwirlFeatureImports._
+import _root_.play.twirl.api.TwirlHelperImports._
+import _root_.play.twirl.api.Html
+import _root_.play.twirl.api.JavaScript
+import _root_.play.twirl.api.Txt
+import _root_.play.twirl.api.Xml
+import models._
+import controllers._
+import play.api.i18n._
+import views.html._
+import play.api.templates.PlayMagic._
+import java.lang._
+import java.util._
+import play.core.j.PlayMagicForJava._
+import play.mvc._
+import play.api.data.Field
+import play.data._
+import play.core.j.PlayFormsMagicForJava._
+import scala.jdk.CollectionConverters._
+/*8.2*/import _root_.be.ugent.caagt.play.util.Table
+/*9.2*/import views.html.be.ugent.caagt.play.ext.i18n
+
+object _columns extends _root_.play.twirl.api.BaseScalaTemplate[play.twirl.api.HtmlFormat.Appendable,_root_.play.twirl.api.Format[play.twirl.api.HtmlFormat.Appendable]](play.twirl.api.HtmlFormat) with _root_.play.twirl.api.Template3[Table,Array[(Enum[_],String)],play.i18n.Messages,play.twirl.api.HtmlFormat.Appendable] {
+
+  /**/
+  def apply/*10.2*/(table: Table, args: (Enum[_],String)*)(implicit messages: play.i18n.Messages):play.twirl.api.HtmlFormat.Appendable = {
+    _display_ {
+      {
+
+
+Seq[Any](format.raw/*11.1*/("""
+"""),_display_(/*12.2*/for(arg <- args) yield /*12.18*/ {_display_(Seq[Any](format.raw/*12.20*/("""
+    """),_display_(if(arg._1 != null)/*13.24*/ {_display_(Seq[Any](format.raw/*13.26*/("""
+        """),_display_(/*14.10*/table/*14.15*/.columnheader(arg._1.name)/*14.41*/(Html(i18n(arg._2)(messages)))),format.raw/*14.71*/("""
+    """)))}else if(arg._2 != null)/*15.31*/ {_display_(Seq[Any](format.raw/*15.33*/("""
+        """),format.raw/*16.9*/("""<th>"""),_display_(/*16.14*/Html(i18n(arg._2)(messages))),format.raw/*16.42*/("""</th>
+    """)))}else/*17.12*/{_display_(Seq[Any](format.raw/*17.13*/("""
+        """),format.raw/*18.9*/("""<th></th>
+    """)))}),format.raw/*19.6*/("""
+""")))}),format.raw/*20.2*/("""
+"""))
+      }
+    }
+  }
+
+  def render(table:Table,args:Array[(Enum[_],String)],messages:play.i18n.Messages): play.twirl.api.HtmlFormat.Appendable = apply(table,args.toIndexedSeq:_*)(messages)
+
+  def f:((Table,Array[(Enum[_],String)]) => (play.i18n.Messages) => play.twirl.api.HtmlFormat.Appendable) = (table,args) => (messages) => apply(table,args.toIndexedSeq:_*)(messages)
+
+  def ref: this.type = this
+
+}
+
+
+              /*
+                  -- GENERATED --
+                  SOURCE: app/views/be/ugent/caagt/play/tables/_columns.scala.html
+                  HASH: 407afdb39107f3dcb04f4475eebf49da4680781c
+                  MATRIX: 637->253|689->299|1086->347|1259->426|1287->428|1319->444|1359->446|1410->470|1450->472|1487->482|1501->487|1536->513|1587->543|1635->574|1675->576|1711->585|1743->590|1792->618|1826->635|1865->636|1901->645|1946->660|1978->662
+                  LINES: 23->8|24->9|29->10|34->11|35->12|35->12|35->12|36->13|36->13|37->14|37->14|37->14|37->14|38->15|38->15|39->16|39->16|39->16|40->17|40->17|41->18|42->19|43->20
+                  -- GENERATED --
+              */
+          
\ No newline at end of file
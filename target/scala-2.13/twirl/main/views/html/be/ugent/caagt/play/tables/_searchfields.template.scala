@@ -0,0 +1,64 @@
+
+package views.html.be.ugent.caagt.play.tables
+
+import _root_.play.twirl.api.TwirlFeatureImports._
+import _root_.play.twirl.api.TwirlHelperImports._
+import _root_.play.twirl.api.Html
+import _root_.play.twirl.api.JavaScript
+import _root_.play.twirl.api.Txt
+import _root_.play.twirl.api.Xml
+import models._
+import controllers._
+import play.api.i18n._
+import views.html._
+import play.api.templates.PlayMagic._
+import java.lang._
+import java.util._
+import play.core.j.PlayMagicForJava._
+import play.mvc._
+import play.api.data.Field
+import play.data._
+import play.core.j.PlayFormsMagicForJava._
+import scala.jdk.CollectionConverters._
+/*8.2*/import _root_.be.ugent.caagt.play.util.Table
+/*9.2*/import views.html.be.ugent.caagt.play.ext.i18n
+
+object _searchfields extends _root_.play.twirl.api.BaseScalaTemplate[play.twirl.api.HtmlFormat.Appendable,_root_.play.twirl.api.Format[play.twirl.api.HtmlFormat.Appendable]](play.twirl.api.HtmlFormat) with _root_.play.twirl.api.Template3[Table,Array[(Enum[_], String)],play.i18n.Messages,play.twirl.api.HtmlFormat.Appendable] {
+
+  /**/
+  def apply/*10.2*/(table: Table, args: (Enum[_], String)*)(implicit messages: play.i18n.Messages):play.twirl.api.HtmlFormat.Appendable = {
+    _display_ {
+      {
+
+
+Seq[Any](format.raw/*11.1*/("""
+"""),_display_(/*12.2*/for(arg <- args) yield /*12.18*/ {_display_(Seq[Any](format.raw/*12.20*/("""
+    """),_display_(if(arg._1 == null || arg._2 == null)/*13.42*/ {_display_(Seq[Any](format.raw/*13.44*/("""
+        """),format.raw/*14.9*/("""<td></td>
+    """)))}else/*15.12*/{_display_(Seq[Any](format.raw/*15.13*/("""
+        """),_display_(/*16.10*/table/*16.15*/.searchfield(arg._1.name, i18n(arg._2)(messages))),format.raw/*16.64*/("""
+    """)))}),format.raw/*17.6*/("""
+""")))}),format.raw/*18.2*/("""
+"""))
+      }
+    }
+  }
+
+  def render(table:Table,args:Array[(Enum[_], String)],messages:play.i18n.Messages): play.twirl.api.HtmlFormat.Appendable = apply(table,args.toIndexedSeq:_*)(messages)
+
+  def f:((Table,Array[(Enum[_], String)]) => (play.i18n.Messages) => play.twirl.api.HtmlFormat.Appendable) = (table,args) => (messages) => apply(table,args.toIndexedSeq:_*)(messages)
+
+  def ref: this.type = this
+
+}
+
+
+              /*
+                  -- GENERATED --
+                  SOURCE: app/views/be/ugent/caagt/play/tables/_searchfields.scala.html
+                  HASH: b2e3336bb5e5eed2f395f92fb41217d794111730
+                  MATRIX: 637->252|689->298|1092->346|1266->426|1294->428|1326->444|1366->446|1435->488|1475->490|1511->499|1549->520|1588->521|1625->531|1639->536|1709->585|1745->591|1777->593
+                  LINES: 23->8|24->9|29->10|34->11|35->12|35->12|35->12|36->13|36->13|37->14|38->15|38->15|39->16|39->16|39->16|40->17|41->18
+                  -- GENERATED --
+              */
+          
\ No newline at end of file
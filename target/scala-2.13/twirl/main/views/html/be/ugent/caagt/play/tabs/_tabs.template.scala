@@ -0,0 +1,75 @@
+
+package views.html.be.ugent.caagt.play.tabs
+
+import _root_.play.twirl.api.TwirlFeatureImports._
+import _root_.play.twirl.api.TwirlHelperImports._
+import _root_.play.twirl.api.Html
+import _root_.play.twirl.api.JavaScript
+import _root_.play.twirl.api.Txt
+import _root_.play.twirl.api.Xml
+import models._
+import controllers._
+import play.api.i18n._
+import views.html._
+import play.api.templates.PlayMagic._
+import java.lang._
+import java.util._
+import play.core.j.PlayMagicForJava._
+import play.mvc._
+import play.api.data.Field
+import play.data._
+import play.core.j.PlayFormsMagicForJava._
+import scala.jdk.CollectionConverters._
+/*9.2*/import _root_.be.ugent.caagt.play.util.Tab
+
+object _tabs extends _root_.play.twirl.api.BaseScalaTemplate[play.twirl.api.HtmlFormat.Appendable,_root_.play.twirl.api.Format[play.twirl.api.HtmlFormat.Appendable]](play.twirl.api.HtmlFormat) with _root_.play.twirl.api.Template3[String,Html,Array[Tab],play.twirl.api.HtmlFormat.Appendable] {
+
+  /**/
+  def apply/*10.2*/(css: String, extra: => Html, tabs: Tab*):play.twirl.api.HtmlFormat.Appendable = {
+    _display_ {
+      {
+
+
+Seq[Any](format.raw/*11.1*/("""
+"""),format.raw/*12.1*/("""<ul class="nav """),_display_(/*12.17*/css),format.raw/*12.20*/("""" role="tablist">
+    """),_display_(/*13.6*/for(tab <- tabs) yield /*13.22*/ {_display_(Seq[Any](format.raw/*13.24*/("""
+        """),format.raw/*14.9*/("""<li class="nav-item" role="presentation">
+            <button class='nav-link """),_display_(if(tab.isActive)/*15.54*/("active")else/*15.68*/("")),format.raw/*15.72*/("""'
+                   data-bs-toggle="tab" data-bs-target="#tab-"""),_display_(/*16.63*/tab/*16.66*/.getId),format.raw/*16.72*/(""""
+                   id=""""),_display_(/*17.25*/tab/*17.28*/.getId),format.raw/*17.34*/("""" type="button" role="tab">"""),_display_(/*17.62*/tab/*17.65*/.getTitle),format.raw/*17.74*/("""</button>
+        </li>
+    """)))}),format.raw/*19.6*/("""
+    """),_display_(/*20.6*/extra),format.raw/*20.11*/("""
+"""),format.raw/*21.1*/("""</ul>
+
+<div class="tab-content">
+    """),_display_(/*24.6*/for(tab <- tabs) yield /*24.22*/ {_display_(Seq[Any](format.raw/*24.24*/("""
+        """),format.raw/*25.9*/("""<div class='tab-pane """),_display_(if(tab.isActive)/*25.47*/("active")else/*25.61*/("")),format.raw/*25.65*/("""' id="tab-"""),_display_(/*25.76*/tab/*25.79*/.getId),format.raw/*25.85*/("""" role="tabpanel">
+        """),_display_(/*26.10*/tab/*26.13*/.getContent),format.raw/*26.24*/("""
+        """),format.raw/*27.9*/("""</div>
+    """)))}),format.raw/*28.6*/("""
+"""),format.raw/*29.1*/("""</div>
+
+"""))
+      }
+    }
+  }
+
+  def render(css:String,extra:Html,tabs:Array[Tab]): play.twirl.api.HtmlFormat.Appendable = apply(css,extra,tabs.toIndexedSeq:_*)
+
+  def f:((String,=> Html,Array[Tab]) => play.twirl.api.HtmlFormat.Appendable) = (css,extra,tabs) => apply(css,extra,tabs.toIndexedSeq:_*)
+
+  def ref: this.type = this
+
+}
+
+
+              /*
+                  -- GENERATED --
+                  SOURCE: app/views/be/ugent/caagt/play/tabs/_tabs.scala.html
+                  HASH: 9ff87af60b16bd6ac718d91a4ec37e419e4768e0
+                  MATRIX: 635->304|999->348|1135->390|1163->391|1206->407|1230->410|1279->433|1311->449|1351->451|1387->460|1509->555|1532->569|1557->573|1648->637|1660->640|1687->646|1740->672|1752->675|1779->681|1834->709|1846->712|1876->721|1935->750|1967->756|1993->761|2021->762|2085->800|2117->816|2157->818|2193->827|2258->865|2281->879|2306->883|2344->894|2356->897|2383->903|2438->931|2450->934|2482->945|2518->954|2560->966|2588->967
+                  LINES: 23->9|28->10|33->11|34->12|34->12|34->12|35->13|35->13|35->13|36->14|37->15|37->15|37->15|38->16|38->16|38->16|39->17|39->17|39->17|39->17|39->17|39->17|41->19|42->20|42->20|43->21|46->24|46->24|46->24|47->25|47->25|47->25|47->25|47->25|47->25|47->25|48->26|48->26|48->26|49->27|50->28|51->29
+                  -- GENERATED --
+              */
+          
\ No newline at end of file
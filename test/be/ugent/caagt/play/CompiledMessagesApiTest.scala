@@ -0,0 +1,140 @@
+/*
+ * CompiledMessagesApiTest.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import java.time.{LocalDate, ZoneId}
+import java.util.Date
+
+import org.junit.Assert._
+import org.junit.Test
+import play.api.http.HttpConfiguration
+import play.api.i18n.{DefaultLangs, DefaultMessagesApi, Lang, MessagesApi}
+
+class CompiledMessagesApiTest {
+
+  private val langs = new DefaultLangs(Seq(Lang("en"), Lang("nl"), Lang("nl-BE")))
+
+  private val patterns = Map(
+    "default" -> Map(
+      "plain" -> "Plain text",
+      "quoted" -> "It''s {0}",
+      "escaped" -> "It''s '{0}'",
+      "number" -> "{0,number,#.##} items",
+      "date" -> "Due {0,date,yyyy-MM-dd}",
+      "choice" -> "{0,choice,0#no files|1#one file|1<{0,number,integer} files}",
+      "mixed" -> "{1} of {0} ({2,number,percent})",
+      "only.default" -> "Default"
+    ),
+    "en" -> Map("hello" -> "Hello {0}", "plain" -> "Plain English", "apostrophe" -> "Don''t"),
+    "nl" -> Map("hello" -> "Hallo {0}", "number" -> "{0,number,#.##} stuks")
+  )
+
+  private def compiledApi(messages: Map[String, Map[String, String]]): CompiledMessagesApi =
+    new CompiledMessagesApi(messages, langs, "PLAY_LANG", cookieSecure = false, cookieHttpOnly = true, None,
+      HttpConfiguration(), None, cacheSize = 100)
+
+  private val defaultApi: MessagesApi = new DefaultMessagesApi(patterns, langs)
+
+  private val args: Seq[Seq[Any]] = Seq(
+    Seq(),
+    Seq("x"),
+    Seq(0),
+    Seq(1),
+    Seq(1234.5678),
+    Seq(42, "forty-two", 0.25),
+    Seq(Date.from(LocalDate.of(2024, 2, 29).atStartOfDay(ZoneId.systemDefault()).toInstant))
+  )
+
+  @Test
+  def formattingMatchesDefaultMessagesApi(): Unit = {
+    val api = compiledApi(patterns)
+    for (lang <- Seq(Lang("en"), Lang("nl"), Lang("nl-BE")); key <- patterns("default").keys ++ Seq("hello");
+         arguments <- args) {
+      val expected = scala.util.Try(defaultApi(key, arguments: _*)(lang))
+      val actual = scala.util.Try(api(key, arguments: _*)(lang))
+      assertEquals(s"$key ${arguments.mkString("[", ",", "]")} in ${lang.code}", expected.toOption, actual.toOption)
+      assertEquals(expected.isSuccess, actual.isSuccess)
+    }
+  }
+
+  @Test
+  def constantPatternsAreFormattedOnce(): Unit = {
+    val api = compiledApi(patterns)
+    val en = Lang("en")
+    assertEquals("Plain English", api("plain")(en))
+    assertSame(api("plain")(en), api("plain", "ignored")(en))
+    // a pattern with quotes but without arguments is also constant
+    assertEquals("It's {0}", api("escaped")(en))
+    assertSame(api("escaped")(en), api("escaped", "ignored")(en))
+  }
+
+  @Test
+  def fallsBackToLanguageAndDefault(): Unit = {
+    val api = compiledApi(patterns)
+    assertEquals("Hallo Jan", api("hello", "Jan")(Lang("nl-BE")))
+    assertEquals("Default", api("only.default")(Lang("nl-BE")))
+    assertEquals("Plain text", api("plain")(Lang("nl")))
+    assertTrue(api.isDefinedAt("only.default")(Lang("en")))
+  }
+
+  @Test
+  def missingKeyIsReturnedAsIs(): Unit = {
+    val api = compiledApi(patterns)
+    assertFalse(api.isDefinedAt("missing")(Lang("en")))
+    assertEquals(None, api.translate("missing", Seq())(Lang("en")))
+    assertEquals(defaultApi("missing", 1)(Lang("en")), api("missing", 1)(Lang("en")))
+  }
+
+  @Test
+  def invalidateRecompilesFromReplacedMessages(): Unit = {
+    val messages = new ReloadableMessagesMap(patterns)
+    val api = compiledApi(messages)
+    assertEquals("Hallo Jan", api("hello", "Jan")(Lang("nl-BE")))
+    assertEquals("Hello Jan", api("hello", "Jan")(Lang("en")))
+    val english = api("apostrophe")(Lang("en")) // formatted when compiled
+
+    messages.replace("nl", Map("hello" -> "Dag {0}"))
+    assertEquals("Hallo Jan", api("hello", "Jan")(Lang("nl-BE"))) // still cached
+    api.invalidate("nl")
+    assertEquals("Dag Jan", api("hello", "Jan")(Lang("nl")))
+    assertEquals("Dag Jan", api("hello", "Jan")(Lang("nl-BE")))
+    assertSame(english, api("apostrophe")(Lang("en"))) // other languages keep their cache
+
+    messages.replace("default", patterns("default").updated("only.default", "Changed"))
+    api.invalidate("default")
+    assertEquals("Changed", api("only.default")(Lang("en")))
+    assertNotSame(english, api("apostrophe")(Lang("en")))
+  }
+
+  @Test
+  def lookupsDuringInvalidationNeverKeepStaleMessages(): Unit = {
+    val messages = new ReloadableMessagesMap(patterns)
+    val api = compiledApi(messages)
+    val readers = (1 to 4).map { _ =>
+      val thread = new Thread(() => {
+        while (!Thread.currentThread.isInterrupted) {
+          api("hello", "Jan")(Lang("nl-BE"))
+        }
+      })
+      thread.start()
+      thread
+    }
+    try {
+      for (i <- 1 to 200) {
+        messages.replace("nl", Map("hello" -> s"Versie $i {0}"))
+        api.invalidate("nl")
+        assertEquals(s"Versie $i Jan", api("hello", "Jan")(Lang("nl-BE")))
+      }
+    } finally {
+      readers.foreach(_.interrupt())
+      readers.foreach(_.join())
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * MessageKeysTest.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play
+
+import org.junit.Assert._
+import org.junit.Test
+import org.openjdk.jol.info.GraphLayout
+
+class MessageKeysTest {
+
+  @Test
+  def unknownKeysHaveNoId(): Unit = {
+    val keys = new MessageKeys
+    assertEquals(-1, keys.id("missing"))
+    keys.compact(Map("a" -> "1"))
+    assertEquals(-1, keys.id("missing"))
+  }
+
+  @Test
+  def idsAreStableWhenKeysAreAdded(): Unit = {
+    val keys = new MessageKeys
+    keys.compact(Map("a" -> "1", "b" -> "2"))
+    val a = keys.id("a")
+    val b = keys.id("b")
+    keys.compact((1 to 100).map(i => s"key.$i" -> i.toString).toMap)
+    assertEquals(a, keys.id("a"))
+    assertEquals(b, keys.id("b"))
+    assertEquals(102, keys.size)
+    for (id <- 0 until keys.size) {
+      assertEquals(id, keys.id(keys.key(id)))
+    }
+  }
+
+  @Test
+  def collidingKeysAreDistinguished(): Unit = {
+    // "Aa" and "BB" have the same hash code
+    val keys = new MessageKeys
+    val messages = keys.compact(Map("Aa" -> "first", "BB" -> "second"))
+    assertNotEquals(keys.id("Aa"), keys.id("BB"))
+    assertEquals(Some("first"), messages.get("Aa"))
+    assertEquals(Some("second"), messages.get("BB"))
+    assertEquals(None, messages.get("AaBB"))
+  }
+
+  @Test
+  def languagesShareKeysButNotValues(): Unit = {
+    val keys = new MessageKeys
+    val en = keys.compact(Map("hello" -> "Hello", "bye" -> "Bye"))
+    val nl = keys.compact(Map("hello" -> "Hallo", "thanks" -> "Dank je"))
+    assertEquals(3, keys.size)
+    assertEquals(2, en.size)
+    assertEquals(Some("Hello"), en.get("hello"))
+    assertFalse(en.contains("thanks")) // id beyond the values of en
+    assertEquals(Some("Hallo"), nl.get("hello"))
+    assertFalse(nl.contains("bye"))
+    assertEquals(Map("hello" -> "Hallo", "thanks" -> "Dank je"), nl.iterator.toMap)
+  }
+
+  /**
+   * Compares the heap retained by messages loaded as separate maps per language (as before) with compact
+   * messages that share a key dictionary. Every language has its own key strings, as when they are parsed
+   * from separate files.
+   */
+  @Test
+  def compactMessagesRetainLessHeap(): Unit = {
+    val languages = Seq("en", "nl", "fr", "de", "es", "it", "pt", "pl", "cs", "sv", "da", "fi")
+    val keyCount = 20000
+    def load(code: String): Map[String, String] =
+      (0 until keyCount).map(i => new String(s"module${i % 50}.page${i % 400}.label$i") -> s"$code text $i").toMap
+
+    val baseline: Map[String, Map[String, String]] = languages.map(code => code -> load(code)).toMap
+    val keys = new MessageKeys
+    val compact: Map[String, Map[String, String]] = languages.map(code => code -> keys.compact(load(code))).toMap
+
+    assertEquals(baseline, compact)
+    val before = GraphLayout.parseInstance(baseline).totalSize()
+    val after = GraphLayout.parseInstance(compact).totalSize()
+    println(f"Messages for ${languages.size} languages with $keyCount keys: ${before / 1024}%,d KiB as maps, " +
+      f"${after / 1024}%,d KiB compact (${100.0 * after / before}%.0f%%)")
+    assertTrue(s"$after < 0.6 * $before", after < 0.6 * before)
+  }
+}
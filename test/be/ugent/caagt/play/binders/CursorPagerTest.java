@@ -0,0 +1,134 @@
+/*
+ * CursorPagerTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CursorPagerTest {
+
+    private static final List<Integer> ROWS = IntStream.rangeClosed(1, 25).boxed().collect(Collectors.toList());
+
+    private static final Function<Integer, String[]> SORT_KEYS = row -> new String[]{String.valueOf(row)};
+
+    /**
+     * Simulates the query for a page of a cursor pager on the rows 1..25
+     */
+    private static List<Integer> query(CursorPager pager) {
+        List<Integer> result = new ArrayList<>();
+        if (pager.isBackward()) {
+            int before = Integer.parseInt(pager.getCursor()[0]);
+            for (int row = before - 1; row >= 1 && result.size() < pager.getLimit(); row--) {
+                result.add(row);
+            }
+        } else {
+            int after = pager.getCursor().length == 0 ? 0 : Integer.parseInt(pager.getCursor()[0]);
+            for (int row = after + 1; row <= 25 && result.size() < pager.getLimit(); row++) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private static Page<Integer> page(Pager pager) {
+        return ((CursorPager) pager).page(query((CursorPager) pager), SORT_KEYS);
+    }
+
+    @Test
+    public void pagingForward() {
+        Page<Integer> first = page(new CursorPager(10));
+        assertEquals(ROWS.subList(0, 10), first.getRows());
+        assertFalse(first.hasPrevious());
+        assertTrue(first.hasNext());
+
+        Page<Integer> second = page(first.next());
+        assertEquals(ROWS.subList(10, 20), second.getRows());
+        assertEquals(11, second.getStart());
+        assertTrue(second.hasPrevious());
+        assertTrue(second.hasNext());
+
+        Page<Integer> third = page(second.next());
+        assertEquals(ROWS.subList(20, 25), third.getRows());
+        assertTrue(third.hasPrevious());
+        assertFalse(third.hasNext());
+    }
+
+    @Test
+    public void pagingBackward() {
+        Page<Integer> third = page(page(page(new CursorPager(10)).next()).next());
+
+        Pager previous = third.previous();
+        assertTrue(((CursorPager) previous).isBackward());
+        Page<Integer> second = page(previous);
+        assertEquals(ROWS.subList(10, 20), second.getRows()); // in display order
+        assertTrue(second.hasPrevious());
+        assertTrue(second.hasNext());
+        assertEquals(new CursorPager(10), second.previous());
+
+        Page<Integer> again = page(second.next());
+        assertEquals(ROWS.subList(20, 25), again.getRows());
+    }
+
+    @Test
+    public void emptyPage() {
+        CursorPager pager = new CursorPager(10);
+        Page<Integer> page = pager.page(List.of(), SORT_KEYS);
+        assertTrue(page.getRows().isEmpty());
+        assertFalse(page.hasNext());
+        assertSame(pager, page.next());
+    }
+
+    @Test
+    public void pagingWithoutPageFails() {
+        Pager pager = page(new CursorPager(10)).next();
+        assertThrows(IllegalStateException.class, pager::next);
+        assertThrows(IllegalStateException.class, pager::previous);
+        PSF psf = new PSF(pager, new Sorter("id", true), new StringMap());
+        assertThrows(IllegalStateException.class, psf::next);
+        assertThrows(IllegalStateException.class, psf::previous);
+    }
+
+    @Test
+    public void psfPagesThroughPage() {
+        PSF psf = new PSF(new CursorPager(10), new Sorter("id", true), new StringMap());
+        Page<Integer> first = page(psf.getPager());
+        PSF next = psf.next(first);
+        assertEquals(new Sorter("id", true), next.getSorter());
+        assertEquals(ROWS.subList(10, 20), page(next.getPager()).getRows());
+        assertEquals(psf, next.previous(page(next.getPager())));
+    }
+
+    @Test
+    public void bindsWhatItUnbinds() {
+        Pager pager = page(page(new CursorPager(10)).next()).next();
+        Map<String, String[]> data = Map.of(
+                "p.nr", new String[]{"2"},
+                "p.size", new String[]{"10"},
+                "p.dir", new String[]{"after"},
+                "p.key", new String[]{"20"});
+        assertEquals("p.nr=2&p.size=10&p.dir=after&p.key=20", pager.unbind("p"));
+        assertEquals(Optional.of(pager), new CursorPager().bind("p", data));
+    }
+
+    @Test
+    public void restartsWhenResorted() {
+        Pager pager = page(new CursorPager(10)).next();
+        assertEquals(new CursorPager(10), pager.resort());
+    }
+}
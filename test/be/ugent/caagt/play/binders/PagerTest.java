@@ -0,0 +1,70 @@
+/*
+ * PagerTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class PagerTest {
+
+    private static final List<Integer> ROWS = IntStream.rangeClosed(1, 25).boxed().collect(Collectors.toList());
+
+    @Test
+    public void countBasedPaging() {
+        Pager pager = new Pager(1, 10);
+        assertEquals(10, pager.getOffset());
+        assertEquals(11, pager.getLimit());
+        assertEquals(11, pager.getStart());
+        assertEquals(20, pager.getEnd(25));
+        assertEquals(25, pager.next().getEnd(25));
+        assertTrue(pager.hasNext(25));
+        assertFalse(pager.next().hasNext(25));
+        assertTrue(pager.hasPrevious());
+        assertEquals(new Pager(0, 10), pager.previous());
+        assertEquals(new Pager(0, 10), pager.getFirst().previous());
+        assertEquals(new Pager(2, 5), pager.resize(5));
+        assertSame(pager, pager.resort());
+    }
+
+    @Test
+    public void countFreePaging() {
+        Pager pager = new Pager(1, 10);
+        Page<Integer> page = pager.page(ROWS.subList(10, 21));
+        assertEquals(ROWS.subList(10, 20), page.getRows());
+        assertTrue(page.hasNext());
+        assertTrue(page.hasPrevious());
+        assertEquals(11, page.getStart());
+        assertEquals(20, page.getEnd());
+        assertEquals(new Pager(2, 10), page.next());
+        assertEquals(new Pager(0, 10), page.previous());
+        assertEquals(new Pager(1, 10), pager); // not changed
+
+        Page<Integer> last = page.next().page(ROWS.subList(20, 25));
+        assertEquals(5, last.getRows().size());
+        assertFalse(last.hasNext());
+        assertEquals(25, last.getEnd());
+    }
+
+    @Test
+    public void estimatedTotal() {
+        Page<Integer> page = new Pager(0, 10).page(ROWS.subList(0, 11));
+        assertEquals(OptionalInt.empty(), page.getEstimatedTotal());
+        Page<Integer> estimated = page.withEstimatedTotal(1000);
+        assertEquals(OptionalInt.of(1000), estimated.getEstimatedTotal());
+        assertEquals(page.getRows(), estimated.getRows());
+        assertEquals(page.hasNext(), estimated.hasNext());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * StringMapTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class StringMapTest {
+
+    @Test
+    public void unbindSortsKeys() {
+        StringMap map = new StringMap();
+        map.put("zeta", "last");
+        map.put("alpha", "a b");
+        map.put("mid", " ");
+        assertEquals("f.alpha=a+b&f.zeta=last", map.unbind("f"));
+        assertEquals("", new StringMap().unbind("f"));
+    }
+
+    @Test
+    public void bindSkipsBlankValues() {
+        Map<String, String[]> data = new HashMap<>();
+        data.put("f.name", new String[]{"x"});
+        data.put("f.blank", new String[]{" "});
+        data.put("other", new String[]{"y"});
+        Optional<StringMap> bound = new StringMap().bind("f", data);
+        assertTrue(bound.isPresent());
+        assertEquals(Map.of("name", "x"), bound.get());
+    }
+
+    @Test
+    public void bindFailsBeyondLimits() {
+        Map<String, String[]> data = new HashMap<>();
+        data.put("f.a", new String[]{"1"});
+        data.put("f.b", new String[]{"1"});
+        try {
+            StringMap.setLimits(1, 100, 1000);
+            assertFalse(new StringMap().bind("f", data).isPresent());
+            StringMap.setLimits(2, 100, 1000);
+            assertTrue(new StringMap().bind("f", data).isPresent());
+        } finally {
+            StringMap.setLimits(64, 100, 1000);
+        }
+        assertFalse(new StringMap().bind("f", Map.of("f.a", new String[]{"1", "2"})).isPresent());
+    }
+
+    @Test
+    public void unbindOfPlainMapMatchesStringMap() {
+        StringMap map = new StringMap();
+        map.put("b", "2");
+        map.put("a", "x&y");
+        assertEquals(map.unbind("f"), StringMap.unbind("f", new HashMap<>(map)));
+        assertEquals("f.a=x%26y&f.b=2", map.unbind("f"));
+    }
+
+    @Test
+    public void psfKeepsPrivateCopyOfFilter() {
+        StringMap filter = new StringMap();
+        filter.put("a", "1");
+        PSF psf = new PSF(new Pager(0, 10), new Sorter(), filter);
+        filter.put("a", "2");
+        assertEquals("1", psf.getFilter().get("a"));
+        assertThrows(UnsupportedOperationException.class, () -> psf.getFilter().put("b", "2"));
+        assertThrows(UnsupportedOperationException.class, () -> psf.getFilter().remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> psf.getFilter().entrySet().iterator().next().setValue("2"));
+    }
+
+    @Test
+    public void withFilterReturnsFirstPageWithChangedFilter() {
+        StringMap filter = new StringMap();
+        filter.put("a", "1");
+        PSF psf = new PSF(new Pager(3, 10), new Sorter("name", true), filter);
+        PSF changed = psf.withFilter("b", "2");
+        assertEquals(Map.of("a", "1", "b", "2"), changed.getFilter());
+        assertEquals(0, changed.getPageNr());
+        assertEquals(psf.getSorter(), changed.getSorter());
+        assertEquals(Map.of("a", "1"), psf.getFilter());
+        assertEquals(Map.of("b", "2"), changed.withFilter("a", " ").getFilter());
+        assertEquals(changed, psf.withFilter("b", "2"));
+        assertEquals(changed.getKey(), new PSF(new Pager(0, 10), new Sorter("name", true), filter).withFilter("b", "2").getKey());
+    }
+}
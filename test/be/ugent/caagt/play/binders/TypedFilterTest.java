@@ -0,0 +1,84 @@
+/*
+ * TypedFilterTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.binders;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.Assert.*;
+
+public class TypedFilterTest {
+
+    enum Status {
+        ACTIVE, RETIRED
+    }
+
+    enum Column implements FilterColumn {
+        NAME(FilterType.LIKE), AGE(FilterType.INT), BORN(FilterType.DATE),
+        STATUS(FilterType.ENUM) {
+            @Override
+            public Class<? extends Enum<?>> getEnumType() {
+                return Status.class;
+            }
+        };
+
+        private final FilterType filterType;
+
+        Column(FilterType filterType) {
+            this.filterType = filterType;
+        }
+
+        @Override
+        public FilterType getFilterType() {
+            return filterType;
+        }
+    }
+
+    enum BrokenColumn implements FilterColumn {
+        STATUS;
+
+        @Override
+        public FilterType getFilterType() {
+            return FilterType.ENUM;
+        }
+    }
+
+    @Test
+    public void valuesAreParsedAccordingToType() {
+        TypedFilter<Column> filter = new TypedFilter<>(
+                Map.of("NAME", "50%_Off", "AGE", " 42 ", "BORN", "2001-02-03", "STATUS", "retired"), Column.class);
+        assertEquals(Optional.of("%50\\%\\_off%"), filter.getLikePattern(Column.NAME));
+        assertEquals(OptionalInt.of(42), filter.getInt(Column.AGE));
+        assertEquals(Optional.of(LocalDate.of(2001, 2, 3)), filter.getDate(Column.BORN));
+        assertEquals(Optional.of(Status.RETIRED), filter.getEnum(Column.STATUS, Status.class));
+    }
+
+    @Test
+    public void invalidValuesAreAbsent() {
+        TypedFilter<Column> filter = new TypedFilter<>(
+                Map.of("AGE", "old", "BORN", "yesterday", "STATUS", "unknown", "NAME", " "), Column.class);
+        assertTrue(filter.isEmpty());
+        assertFalse(filter.isPresent(Column.AGE));
+        assertEquals(Optional.empty(), filter.getString(Column.STATUS));
+    }
+
+    @Test
+    public void enumColumnWithoutEnumTypeIsRejected() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> new TypedFilter<>(Map.of("STATUS", "active"), BrokenColumn.class));
+        assertTrue(ex.getMessage().contains("BrokenColumn.STATUS"));
+        // also without a value for the column
+        assertThrows(IllegalArgumentException.class, () -> new TypedFilter<>(Map.of(), BrokenColumn.class));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * HistogramTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        assertEquals(20, histogram.getCount());
+        assertEquals(20, histogram.getMax());
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(19, histogram.getPercentile(95));
+        assertEquals(20, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void largeValuesAreWithinBucketPrecision() {
+        long[] values = {32, 33, 63, 64, 65, 1000, 123_456, 1L << 40, (1L << 40) + 12345, Long.MAX_VALUE / 3};
+        for (long value : values) {
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE); // so that the result is not clipped by the maximum
+            long upper = histogram.getPercentile(50);
+            assertTrue(value + " <= " + upper, value <= upper);
+            assertTrue(value + " ~ " + upper, upper - value <= value / 32);
+        }
+    }
+
+    @Test
+    public void percentileNeverExceedsMaximum() {
+        Histogram histogram = new Histogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void percentilesAreMonotonic() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value < 1_000_000_000L; value = value * 3 + 1) {
+            histogram.record(value);
+        }
+        long previous = 0;
+        for (int percentile = 1; percentile <= 100; percentile++) {
+            long current = histogram.getPercentile(percentile);
+            assertTrue(previous <= current);
+            previous = current;
+        }
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * InMemoryTableTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.play.util;
+
+import be.ugent.caagt.play.binders.PSF;
+import be.ugent.caagt.play.binders.Pager;
+import be.ugent.caagt.play.binders.Sorter;
+import be.ugent.caagt.play.binders.StringMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class InMemoryTableTest {
+
+    enum Column {
+        ID, GROUP, NAME
+    }
+
+    static final class Row {
+        final int id;
+        final Integer group;
+        final String name;
+
+        Row(int id, Integer group, String name) {
+            this.id = id;
+            this.group = group;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return id + "/" + group;
+        }
+    }
+
+    private static final InMemoryTable<Row, Column> TABLE = new InMemoryTable<Row, Column>(Column.class)
+            .column(Column.ID, row -> row.id)
+            .column(Column.GROUP, row -> row.group)
+            .filterColumn(Column.NAME, row -> row.name);
+
+    /**
+     * Rows in random order, with many equal groups and some null groups
+     */
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(i, i % 13 == 0 ? null : i % 7, i % 2 == 0 ? "even" : "odd"));
+        }
+        Collections.shuffle(rows, new Random(count));
+        return rows;
+    }
+
+    private static PSF psf(String column, boolean ascending, int pageNr, int pageSize, StringMap filter) {
+        return new PSF(new Pager(pageNr, pageSize), new Sorter(column, ascending), filter);
+    }
+
+    /**
+     * Expected order: by group (nulls last when ascending, first when descending), ties in original order
+     */
+    private static List<Row> sorted(List<Row> rows, boolean ascending) {
+        Comparator<Integer> groups = ascending
+                ? Comparator.nullsLast(Comparator.<Integer>naturalOrder())
+                : Comparator.nullsFirst(Comparator.<Integer>reverseOrder());
+        List<Row> result = new ArrayList<>(rows);
+        result.sort((row1, row2) -> groups.compare(row1.group, row2.group)); // stable
+        return result;
+    }
+
+    @Test
+    public void everyPageMatchesFullSort() {
+        List<Row> rows = rows(200);
+        for (boolean ascending : new boolean[]{true, false}) {
+            List<Row> expected = sorted(rows, ascending);
+            for (int pageSize : new int[]{1, 7, 10, 64}) {
+                for (int pageNr = 0; pageNr * pageSize < 220; pageNr++) {
+                    InMemoryTable.Page<Row> page = TABLE.page(rows, psf("GROUP", ascending, pageNr, pageSize, new StringMap()));
+                    int from = Math.min(pageNr * pageSize, 200);
+                    int to = Math.min(from + pageSize, 200);
+                    assertEquals("page " + pageNr + " of size " + pageSize + (ascending ? " asc" : " desc"),
+                            expected.subList(from, to), page.getRows());
+                    assertEquals(200, page.getTotal());
+                    assertEquals(to < 200, page.hasNext());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void inputIsNotChanged() {
+        List<Row> rows = rows(50);
+        List<Row> copy = new ArrayList<>(rows);
+        TABLE.page(rows, psf("GROUP", true, 0, 5, new StringMap()));
+        TABLE.page(rows, psf("GROUP", true, 8, 5, new StringMap()));
+        assertEquals(copy, rows);
+    }
+
+    @Test
+    public void unknownSortColumnKeepsOriginalOrder() {
+        List<Row> rows = rows(30);
+        assertEquals(rows.subList(10, 20), TABLE.page(rows, psf("COLOR", true, 1, 10, new StringMap())).getRows());
+        // filter columns cannot be used for sorting
+        assertEquals(rows.subList(10, 20), TABLE.page(rows, psf("NAME", true, 1, 10, new StringMap())).getRows());
+    }
+
+    @Test
+    public void filterIsAppliedBeforePaging() {
+        List<Row> rows = rows(100);
+        StringMap filter = new StringMap();
+        filter.put("NAME", "odd");
+        InMemoryTable.Page<Row> page = TABLE.page(rows, psf("ID", false, 0, 3, filter));
+        assertEquals(50, page.getTotal());
+        assertTrue(page.hasNext());
+        List<Integer> ids = new ArrayList<>();
+        for (Row row : page.getRows()) {
+            ids.add(row.id);
+        }
+        assertEquals(List.of(99, 97, 95), ids);
+    }
+
+    @Test
+    public void parallelFilterGivesSameResult() {
+        List<Row> rows = rows(500);
+        StringMap filter = new StringMap();
+        filter.put("NAME", "even");
+        InMemoryTable<Row, Column> parallel = new InMemoryTable<Row, Column>(Column.class)
+                .column(Column.GROUP, row -> row.group)
+                .filterColumn(Column.NAME, row -> row.name)
+                .parallelThreshold(1);
+        PSF psf = psf("GROUP", true, 2, 20, filter);
+        assertEquals(TABLE.page(rows, psf).getRows(), parallel.page(rows, psf).getRows());
+    }
+
+    @Test
+    public void pageBeyondTheEndIsEmpty() {
+        InMemoryTable.Page<Row> page = TABLE.page(rows(10), psf("GROUP", true, 5, 10, new StringMap()));
+        assertTrue(page.getRows().isEmpty());
+        assertEquals(10, page.getTotal());
+        assertFalse(page.hasNext());
+    }
+}
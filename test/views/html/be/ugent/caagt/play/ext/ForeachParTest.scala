@@ -0,0 +1,90 @@
+/*
+ * ForeachParTest.scala
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2022-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package views.html.be.ugent.caagt.play.ext
+
+import org.junit.Assert._
+import org.junit.Test
+import play.twirl.api.Html
+
+import java.util.concurrent.{CountDownLatch, Executors, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.jdk.CollectionConverters._
+
+class ForeachParTest {
+
+  private val rows = (0 until 5000).map(Integer.valueOf).asJava
+
+  @Test
+  def parallelResultEqualsSequentialResult(): Unit = {
+    val settings = ParallelRendering(ParallelRendering.default.executor, threshold = 10, chunkSize = 7)
+    val expected = foreach.withIndex(rows, "td", Symbol("class") -> "x")((el, i) => Html(s"$el:$i"))
+    assertEquals(expected.body,
+      foreach.parWithIndex(rows, "td", Symbol("class") -> "x")((el, i) => Html(s"$el:$i"))(settings).body)
+  }
+
+  @Test
+  def smallCollectionsDoNotUseThePool(): Unit = {
+    val pool = Executors.newSingleThreadExecutor()
+    try {
+      val caller = Thread.currentThread
+      val settings = ParallelRendering(pool, threshold = rows.size + 1)
+      foreach.par(rows)(el => { assertSame(caller, Thread.currentThread); Html("") })(settings)
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  @Test
+  def failureCancelsRemainingTasks(): Unit = {
+    val pool = Executors.newFixedThreadPool(2)
+    try {
+      val rendered = new AtomicInteger
+      val settings = ParallelRendering(pool, threshold = 1, chunkSize = 1)
+      val ex = assertThrows(classOf[IllegalStateException], () => foreach.par(rows) { el =>
+        if (el == 0) throw new IllegalStateException("row 0")
+        Thread.sleep(1)
+        rendered.incrementAndGet()
+        Html("")
+      }(settings))
+      assertEquals("row 0", ex.getMessage)
+      pool.shutdown()
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS))
+      assertTrue(rendered.get < rows.size - 1)
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  @Test
+  def interruptCancelsTasksAndKeepsFlag(): Unit = {
+    val pool = Executors.newFixedThreadPool(2)
+    try {
+      val started = new CountDownLatch(1)
+      val settings = ParallelRendering(pool, threshold = 1, chunkSize = 1)
+      val caller = Thread.currentThread
+      val interrupter = new Thread(() => {
+        started.await()
+        caller.interrupt()
+      })
+      interrupter.start()
+      assertThrows(classOf[InterruptedException], () => foreach.par(rows) { _ =>
+        started.countDown()
+        Thread.sleep(10000)
+        Html("")
+      }(settings))
+      assertTrue(Thread.interrupted()) // also clears the flag
+      pool.shutdown()
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS))
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+}